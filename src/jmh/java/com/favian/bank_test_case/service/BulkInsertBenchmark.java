@@ -0,0 +1,106 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.BatchTransferMode;
+import com.favian.bank_test_case.dto.BatchTransferRequest;
+import com.favian.bank_test_case.dto.BatchTransferResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.favian.bank_test_case.TestFixtures.newCard;
+import static com.favian.bank_test_case.TestFixtures.newUser;
+
+// Rows inserted per second; batchSize=0 boots with JDBC batching off for comparison.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 100;
+    private static final String MASKED_NUMBER = "**** **** **** 0000";
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({"0", "50"})
+        int batchSize;
+
+        private final AtomicInteger userSequence = new AtomicInteger();
+
+        ConfigurableApplicationContext context;
+        BatchTransferService batchTransferService;
+        UserRepository userRepository;
+        CardRepository cardRepository;
+        TransactionTemplate transactionTemplate;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkContext.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+            batchTransferService = context.getBean(BatchTransferService.class);
+            userRepository = context.getBean(UserRepository.class);
+            cardRepository = context.getBean(CardRepository.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Account {
+
+        User user;
+        BatchTransferRequest transfers;
+
+        @Setup(Level.Trial)
+        public void seed(Application application) {
+            int n = application.userSequence.incrementAndGet();
+            user = application.userRepository.save(newUser("bulk" + n + "@test.com", "+1555100" + n));
+
+            Card firstCard = application.cardRepository.save(newCard(user, MASKED_NUMBER, BigDecimal.valueOf(1_000_000_000)));
+            Card secondCard = application.cardRepository.save(newCard(user, MASKED_NUMBER, BigDecimal.valueOf(1_000_000_000)));
+
+            // Alternating directions keep both balances stable across invocations
+            List<TransferRequest> items = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                Card from = i % 2 == 0 ? firstCard : secondCard;
+                Card to = i % 2 == 0 ? secondCard : firstCard;
+                items.add(new TransferRequest(from.getId(), to.getId(), BigDecimal.ONE, "bulk"));
+            }
+            transfers = new BatchTransferRequest(items, BatchTransferMode.ALL_OR_NOTHING);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Card> insertCards(Application application, Account account) {
+        List<Card> cards = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            cards.add(newCard(account.user, MASKED_NUMBER, BigDecimal.ZERO));
+        }
+        return application.transactionTemplate.execute(status -> application.cardRepository.saveAll(cards));
+    }
+
+    // Each transfer inserts one transaction and two ledger rows
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BatchTransferResponse batchTransfer(Application application, Account account) {
+        return application.batchTransferService.transfer(account.transfers, account.user.getId());
+    }
+}
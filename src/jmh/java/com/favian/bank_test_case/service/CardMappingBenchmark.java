@@ -0,0 +1,95 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.CardResponse;
+import com.favian.bank_test_case.dto.TransactionResponse;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.Transaction;
+import com.favian.bank_test_case.entity.enums.CardStatus;
+import com.favian.bank_test_case.entity.enums.TransactionStatus;
+import com.favian.bank_test_case.entity.enums.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// List pages select DTOs in the query, so entities are only mapped for single cards and freshly saved transfers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int chunkSize;
+
+    private CardService cardService;
+    private TransactionService transactionService;
+    private Card card;
+    private Transaction transaction;
+    private List<Transaction> savedChunk;
+
+    @Setup
+    public void setUp() {
+        cardService = new CardService(null, null, null, null);
+        transactionService = new TransactionService(null, null, null, null, null, null);
+
+        card = newCard(0L);
+        Card other = newCard(1L);
+        savedChunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            savedChunk.add(newTransaction((long) i, i % 2 == 0 ? card : other, i % 2 == 0 ? other : card));
+        }
+        transaction = savedChunk.get(0);
+    }
+
+    @Benchmark
+    public CardResponse mapToCardResponse() {
+        return cardService.mapToCardResponse(card);
+    }
+
+    // Response of a single transfer
+    @Benchmark
+    public TransactionResponse mapToTransactionResponse() {
+        return transactionService.mapToTransactionResponse(transaction);
+    }
+
+    // Item results of one committed batch chunk, as BatchTransferService builds them
+    @Benchmark
+    public List<TransactionResponse> mapSavedBatchChunk() {
+        List<TransactionResponse> responses = new ArrayList<>(savedChunk.size());
+        for (Transaction saved : savedChunk) {
+            responses.add(transactionService.mapToTransactionResponse(saved));
+        }
+        return responses;
+    }
+
+    private static Card newCard(Long id) {
+        Card card = new Card();
+        card.setId(id);
+        card.setMaskedNumber("**** **** **** " + (1000 + id));
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.valueOf(1000));
+        return card;
+    }
+
+    private static Transaction newTransaction(Long id, Card from, Card to) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setFromCard(from);
+        transaction.setToCard(to);
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setDescription("benchmark");
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setCompletedAt(LocalDateTime.now());
+        return transaction;
+    }
+}
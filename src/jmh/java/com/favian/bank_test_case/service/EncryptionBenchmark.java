@@ -0,0 +1,88 @@
+package com.favian.bank_test_case.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EncryptionBenchmark {
+
+    private static final String KEY = "12345678901234567890123456789012";
+    private static final String CARD_NUMBER = "4000 1234 5678 9010";
+
+    private EncryptionService encryptionService;
+    private SecretKeySpec secretKeySpec;
+    private String encrypted;
+    private String legacyEncrypted;
+    private byte[] cardNumberBytes;
+    private byte[] encryptedBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionService = new EncryptionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "secret", KEY);
+        encryptionService.init();
+
+        secretKeySpec = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
+        encrypted = encryptionService.encrypt(CARD_NUMBER);
+        legacyEncrypted = legacyEncrypt(CARD_NUMBER);
+        cardNumberBytes = CARD_NUMBER.getBytes(StandardCharsets.UTF_8);
+        encryptedBytes = encryptionService.encryptBytes(cardNumberBytes);
+    }
+
+    // Baseline: the previous implementation, which looked up a new Cipher for every value
+    @Benchmark
+    public String legacyEncryptPerCallCipher() throws Exception {
+        return legacyEncrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String legacyDecryptPerCallCipher() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
+        return new String(cipher.doFinal(Base64.getDecoder().decode(legacyEncrypted)), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionService.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionService.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String decryptLegacyValue() {
+        return encryptionService.decrypt(legacyEncrypted);
+    }
+
+    @Benchmark
+    public byte[] encryptBytes() {
+        return encryptionService.encryptBytes(cardNumberBytes);
+    }
+
+    @Benchmark
+    public byte[] decryptBytes() {
+        return encryptionService.decryptBytes(encryptedBytes);
+    }
+
+    private String legacyEncrypt(String value) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
+        return Base64.getEncoder().encodeToString(cipher.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.entity.Role;
+import com.favian.bank_test_case.entity.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secret", "dGVzdF9zZWNyZXRfa2V5X2Zvcl9qd3RfdG9rZW5fZ2VuZXJhdGlvbl8zMl9ieXRlcw==");
+        ReflectionTestUtils.setField(jwtService, "accessExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheSize", 10000L);
+        jwtService.init();
+
+        Role role = new Role();
+        role.setName("USER");
+        user = new User();
+        user.setId(1L);
+        user.setEmail("user@test.com");
+        user.setRoles(Set.of(role));
+        token = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    // Repeated requests with the same token are served from the verified claims cache
+    @Benchmark
+    public Claims verifyCached() {
+        return jwtService.verify(token);
+    }
+
+    // First request with a token: signature check and claims parsing
+    @Benchmark
+    public Claims generateAndVerify() {
+        return jwtService.verify(jwtService.generateAccessToken(user));
+    }
+}
@@ -0,0 +1,102 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.TransactionResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.favian.bank_test_case.TestFixtures.newCard;
+import static com.favian.bank_test_case.TestFixtures.newUser;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TransactionBenchmark {
+
+    private static final int SEEDED_TRANSACTIONS = 200;
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        private final AtomicInteger userSequence = new AtomicInteger();
+
+        ConfigurableApplicationContext context;
+        TransactionService transactionService;
+        UserRepository userRepository;
+        CardRepository cardRepository;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkContext.start();
+            transactionService = context.getBean(TransactionService.class);
+            userRepository = context.getBean(UserRepository.class);
+            cardRepository = context.getBean(CardRepository.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    // Each benchmark thread works on its own user and pair of cards, so results measure the transfer path, not row contention.
+    @State(Scope.Thread)
+    public static class Account {
+
+        User user;
+        Card firstCard;
+        Card secondCard;
+        Pageable page = PageRequest.of(0, 20, Sort.by("createdAt").descending());
+        boolean forward;
+
+        @Setup(Level.Trial)
+        public void seed(Application application) {
+            int n = application.userSequence.incrementAndGet();
+            user = application.userRepository.save(newUser("bench" + n + "@test.com", "+1555000" + n));
+
+            firstCard = application.cardRepository.save(
+                    newCard(user, "**** **** **** " + n + "1", BigDecimal.valueOf(1_000_000_000)));
+            secondCard = application.cardRepository.save(
+                    newCard(user, "**** **** **** " + n + "2", BigDecimal.valueOf(1_000_000_000)));
+
+            for (int i = 0; i < SEEDED_TRANSACTIONS; i++) {
+                application.transactionService.transferBetweenOwnCards(
+                        new TransferRequest(firstCard.getId(), secondCard.getId(), BigDecimal.ONE, "seed"), user.getId());
+            }
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse transferBetweenOwnCards(Application application, Account account) {
+        account.forward = !account.forward;
+        Card from = account.forward ? account.firstCard : account.secondCard;
+        Card to = account.forward ? account.secondCard : account.firstCard;
+        return application.transactionService.transferBetweenOwnCards(
+                new TransferRequest(from.getId(), to.getId(), BigDecimal.TEN, "benchmark"), account.user.getId());
+    }
+
+    @Benchmark
+    public Page<TransactionResponse> getUserTransactionsPage(Application application, Account account) {
+        return application.transactionService.getUserTransactions(account.user.getId(), account.page);
+    }
+
+    @Benchmark
+    public Page<TransactionResponse> getCardTransactionsPage(Application application, Account account) {
+        return application.transactionService.getCardTransactions(account.firstCard.getId(), account.user.getId(), account.page);
+    }
+}
@@ -0,0 +1,230 @@
+package com.favian.bank_test_case.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.favian.bank_test_case.loadtest.LoadTestSettings.Operation;
+import com.favian.bank_test_case.loadtest.LoadTestSettings.ThreadMode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+    // One HttpClient serialises connection pool access behind a single lock, which saturates
+    // long before the server does at thousands of clients, so clients are spread over several
+    private static final int CLIENTS_PER_HTTP_CLIENT = 250;
+
+    private final LoadTestSettings settings;
+    private final ThreadMode threadMode;
+    private final int concurrency;
+    private final URI baseUri;
+    private final List<LoadTestUser> users;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient[] httpClients;
+    private final Operation[] weightedOperations;
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    private volatile boolean recording;
+
+    LoadGenerator(LoadTestSettings settings, ThreadMode threadMode, int concurrency, URI baseUri, List<LoadTestUser> users) {
+        this.settings = settings;
+        this.threadMode = threadMode;
+        this.concurrency = concurrency;
+        this.baseUri = baseUri;
+        this.users = users;
+        this.httpClients = new HttpClient[Math.max(1, concurrency / CLIENTS_PER_HTTP_CLIENT)];
+        for (int i = 0; i < httpClients.length; i++) {
+            httpClients[i] = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+        }
+
+        List<Operation> operations = new ArrayList<>();
+        settings.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        });
+        this.weightedOperations = operations.toArray(Operation[]::new);
+    }
+
+    LoadTestResult run() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> logins = new ArrayList<>(users.size());
+            for (LoadTestUser user : users) {
+                logins.add(executor.submit(() -> login(user)));
+            }
+            for (Future<?> login : logins) {
+                login.get();
+            }
+
+            long warmupEnd = System.nanoTime() + settings.warmup().toNanos();
+            long end = warmupEnd + settings.duration().toNanos();
+            List<Future<?>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> drive(end)));
+            }
+
+            System.out.printf("%nServer on %s threads: warming up for %ds with %d virtual-thread clients%n",
+                    threadMode.name().toLowerCase(), settings.warmup().toSeconds(), concurrency);
+            sleepUntil(warmupEnd);
+            histograms.values().forEach(Histogram::reset);
+            errors.values().forEach(LongAdder::reset);
+            recording = true;
+            System.out.printf("Measuring for %ds%n", settings.duration().toSeconds());
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return report();
+    }
+
+    private Void drive(long end) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            LoadTestUser user = users.get(random.nextInt(users.size()));
+
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = execute(operation, user, random);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+
+            if (recording) {
+                histograms.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                if (!ok) {
+                    errors.get(operation).increment();
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean execute(Operation operation, LoadTestUser user, ThreadLocalRandom random) throws Exception {
+        return switch (operation) {
+            case LOGIN -> login(user);
+            case CARDS -> send(authorized(user, "/api/cards?page=0&size=10").GET().build()) != null;
+            case TRANSACTIONS -> send(authorized(user, "/api/cards/transactions?page=0&size=10").GET().build()) != null;
+            case TRANSFER -> {
+                List<Long> cardIds = user.getCardIds();
+                int from = random.nextInt(cardIds.size());
+                int to = (from + 1 + random.nextInt(cardIds.size() - 1)) % cardIds.size();
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "fromCardId", cardIds.get(from),
+                        "toCardId", cardIds.get(to),
+                        "amount", 1,
+                        "description", "load test"
+                ));
+                yield send(authorized(user, "/api/cards/transfer")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build()) != null;
+            }
+        };
+    }
+
+    private boolean login(LoadTestUser user) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "email", user.getEmail(),
+                "password", LoadTestSeeder.PASSWORD
+        ));
+        String response = send(HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        if (response == null) {
+            return false;
+        }
+        JsonNode json = objectMapper.readTree(response);
+        user.setAccessToken(json.get("accessToken").asText());
+        return true;
+    }
+
+    private HttpRequest.Builder authorized(LoadTestUser user, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Authorization", "Bearer " + user.getAccessToken());
+    }
+
+    // Returns the body for 2xx responses and null otherwise.
+    private String send(HttpRequest request) throws Exception {
+        HttpClient httpClient = httpClients[ThreadLocalRandom.current().nextInt(httpClients.length)];
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() / 100 == 2 ? response.body() : null;
+    }
+
+    private LoadTestResult report() {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        System.out.println();
+        System.out.printf("%-14s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long requests = histogram.getTotalCount();
+            long operationErrors = errors.get(entry.getKey()).sum();
+            total.add(histogram);
+            totalErrors += operationErrors;
+            System.out.printf("%-14s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey().name().toLowerCase(),
+                    requests,
+                    operationErrors,
+                    requests / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+        long totalRequests = total.getTotalCount();
+        System.out.printf("%-14s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                "total",
+                totalRequests,
+                totalErrors,
+                totalRequests / seconds,
+                millis(total.getValueAtPercentile(50)),
+                millis(total.getValueAtPercentile(99)),
+                millis(total.getValueAtPercentile(99.9)),
+                millis(total.getMaxValue()));
+
+        return new LoadTestResult(threadMode, concurrency, totalRequests, totalErrors, totalRequests / seconds,
+                millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(99)));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            Thread.sleep(Duration.ofNanos(remaining));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.favian.bank_test_case.loadtest;
+
+import com.favian.bank_test_case.loadtest.LoadTestSettings.ThreadMode;
+
+record LoadTestResult(
+        ThreadMode threadMode,
+        int concurrency,
+        long requests,
+        long errors,
+        double requestsPerSecond,
+        double p50Millis,
+        double p99Millis
+) {
+}
@@ -0,0 +1,72 @@
+package com.favian.bank_test_case.loadtest;
+
+import com.favian.bank_test_case.BankTestCaseApplication;
+import com.favian.bank_test_case.loadtest.LoadTestSettings.ThreadMode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Boots one node on H2 (PostgreSQL mode, Liquibase schema), seeds it and drives HTTP traffic against it.
+// Each entry of loadtest.thread-modes gets a fresh node that is then run at every loadtest.concurrency level.
+// Run with: mvn -Ploadtest test-compile exec:java [-Dloadtest.users=200 -Dloadtest.duration-seconds=120 ...]
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        System.out.println("Load test settings: " + settings);
+
+        List<LoadTestResult> results = new ArrayList<>();
+        for (ThreadMode threadMode : settings.threadModes()) {
+            results.addAll(run(settings, threadMode, args));
+        }
+        if (results.size() > 1) {
+            printComparison(results);
+        }
+    }
+
+    private static List<LoadTestResult> run(LoadTestSettings settings, ThreadMode threadMode, String[] args) throws Exception {
+        // Passed as a command-line argument so it wins over the environment-driven default in application.yml
+        String[] arguments = Arrays.copyOf(args, args.length + 1);
+        arguments[args.length] = "--spring.threads.virtual.enabled=" + (threadMode == ThreadMode.VIRTUAL);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BankTestCaseApplication.class)
+                .profiles("loadtest")
+                .run(arguments);
+        try (PinnedThreadMonitor pinnedThreads = new PinnedThreadMonitor()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            List<LoadTestUser> users = new LoadTestSeeder(context).seed(settings.users(), settings.cardsPerUser());
+            System.out.printf("Seeded %d users with %d cards each%n", users.size(), settings.cardsPerUser());
+
+            List<LoadTestResult> results = new ArrayList<>();
+            for (int concurrency : settings.concurrencyLevels()) {
+                results.add(new LoadGenerator(settings, threadMode, concurrency, URI.create("http://localhost:" + port), users).run());
+            }
+            if (threadMode == ThreadMode.VIRTUAL) {
+                pinnedThreads.stopAndReport();
+            }
+            return results;
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void printComparison(List<LoadTestResult> results) {
+        System.out.println();
+        System.out.printf("%-10s %12s %10s %8s %10s %10s %10s%n",
+                "threads", "concurrency", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+        for (LoadTestResult result : results) {
+            System.out.printf("%-10s %12d %10d %8d %10.1f %10.2f %10.2f%n",
+                    result.threadMode().name().toLowerCase(),
+                    result.concurrency(),
+                    result.requests(),
+                    result.errors(),
+                    result.requestsPerSecond(),
+                    result.p50Millis(),
+                    result.p99Millis());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.favian.bank_test_case.loadtest;
+
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.Role;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.entity.enums.CardStatus;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.RoleRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import com.favian.bank_test_case.service.EncryptionService;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+class LoadTestSeeder {
+
+    static final String PASSWORD = "25442544";
+    // BCrypt hash of PASSWORD, shared by all seeded users so seeding does not spend minutes hashing
+    private static final String PASSWORD_HASH = "$2a$10$DTuyKMRczA3.U.JCKO7btuLxWh8RwQd.53T4GT7MF2CT9elzQ9/xS";
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final CardRepository cardRepository;
+    private final EncryptionService encryptionService;
+
+    LoadTestSeeder(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.roleRepository = context.getBean(RoleRepository.class);
+        this.cardRepository = context.getBean(CardRepository.class);
+        this.encryptionService = context.getBean(EncryptionService.class);
+    }
+
+    List<LoadTestUser> seed(int userCount, int cardsPerUser) {
+        Role role = roleRepository.findByName("USER")
+                .orElseThrow(() -> new IllegalStateException("USER role is not seeded by Liquibase"));
+        List<LoadTestUser> seeded = new ArrayList<>(userCount);
+
+        for (int from = 0; from < userCount; from += BATCH_SIZE) {
+            List<User> users = new ArrayList<>();
+            for (int i = from; i < Math.min(from + BATCH_SIZE, userCount); i++) {
+                User user = new User();
+                user.setEmail("load" + i + "@test.com");
+                user.setPasswordHash(PASSWORD_HASH);
+                user.setPhone(String.format("+19%09d", i));
+                user.getRoles().add(role);
+                users.add(user);
+            }
+            users = userRepository.saveAll(users);
+
+            List<Card> cards = new ArrayList<>();
+            for (User user : users) {
+                for (int c = 0; c < cardsPerUser; c++) {
+                    cards.add(newCard(user, c));
+                }
+            }
+            cards = cardRepository.saveAll(cards);
+
+            for (int u = 0; u < users.size(); u++) {
+                List<Long> cardIds = new ArrayList<>(cardsPerUser);
+                for (int c = 0; c < cardsPerUser; c++) {
+                    cardIds.add(cards.get(u * cardsPerUser + c).getId());
+                }
+                seeded.add(new LoadTestUser(users.get(u).getEmail(), List.copyOf(cardIds)));
+            }
+        }
+        return seeded;
+    }
+
+    private Card newCard(User user, int index) {
+        String number = String.format("4000%08d%04d", user.getId(), index);
+        Card card = new Card();
+        card.setUser(user);
+        card.setEncryptedNumber(encryptionService.encrypt(number));
+        card.setMaskedNumber("**** **** **** " + number.substring(12));
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.valueOf(1_000_000));
+        return card;
+    }
+}
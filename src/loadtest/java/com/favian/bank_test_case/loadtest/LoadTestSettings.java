@@ -0,0 +1,74 @@
+package com.favian.bank_test_case.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public record LoadTestSettings(
+        int users,
+        int cardsPerUser,
+        List<Integer> concurrencyLevels,
+        List<ThreadMode> threadModes,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix
+) {
+
+    public enum Operation {
+        LOGIN, CARDS, TRANSFER, TRANSACTIONS
+    }
+
+    // How the server under test runs request handlers: Tomcat's platform pool or one virtual thread per request
+    public enum ThreadMode {
+        PLATFORM, VIRTUAL
+    }
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.users", 100),
+                Math.max(Integer.getInteger("loadtest.cards-per-user", 2), 2),
+                parseList(System.getProperty("loadtest.concurrency", "64"), Integer::valueOf),
+                parseList(System.getProperty("loadtest.thread-modes", "platform"),
+                        mode -> ThreadMode.valueOf(mode.toUpperCase())),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 60)),
+                parseMix(System.getProperty("loadtest.mix", "login=5,cards=40,transfer=25,transactions=30"))
+        );
+    }
+
+    // Format: login=5,cards=40,transfer=25,transactions=30 (relative weights)
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix has no operations: " + mix);
+        }
+        return weights;
+    }
+
+    // Format: 1000,2500,5000 or platform,virtual
+    static <T> List<T> parseList(String value, Function<String, T> parser) {
+        List<T> values = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            if (!entry.isBlank()) {
+                values.add(parser.apply(entry.trim()));
+            }
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Empty list: " + value);
+        }
+        return values;
+    }
+}
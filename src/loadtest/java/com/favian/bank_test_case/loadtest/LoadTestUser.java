@@ -0,0 +1,31 @@
+package com.favian.bank_test_case.loadtest;
+
+import java.util.List;
+
+public class LoadTestUser {
+
+    private final String email;
+    private final List<Long> cardIds;
+    private volatile String accessToken;
+
+    public LoadTestUser(String email, List<Long> cardIds) {
+        this.email = email;
+        this.cardIds = cardIds;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public List<Long> getCardIds() {
+        return cardIds;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+}
@@ -0,0 +1,63 @@
+package com.favian.bank_test_case.loadtest;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Streams JFR jdk.VirtualThreadPinned events: a virtual thread blocked while holding a monitor
+// (or inside native code) keeps its carrier thread, which is what limits virtual-thread throughput.
+class PinnedThreadMonitor implements AutoCloseable {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration THRESHOLD = Duration.ofMillis(5);
+
+    private final RecordingStream stream = new RecordingStream();
+    private final LongAdder events = new LongAdder();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+
+    PinnedThreadMonitor() {
+        stream.enable(EVENT).withThreshold(THRESHOLD).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+    }
+
+    private void record(RecordedEvent event) {
+        events.increment();
+        sites.computeIfAbsent(pinningSite(event), site -> new LongAdder()).increment();
+    }
+
+    // First frame outside the JDK, i.e. the library or application code that blocked while pinned
+    private static String pinningSite(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    // Stopping flushes events that are still buffered, so the counts cover the whole run
+    void stopAndReport() {
+        stream.stop();
+        System.out.printf("Virtual threads pinned for more than %dms: %d%n", THRESHOLD.toMillis(), events.sum());
+        sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(5)
+                .forEach(entry -> System.out.printf("  %8d  %s%n", entry.getValue().sum(), entry.getKey()));
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.favian.bank_test_case.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Slf4j
+@Configuration
+public class DataSourcePoolConfig {
+
+    private final DataSource dataSource;
+    private final ServerProperties serverProperties;
+    private final Environment environment;
+
+    public DataSourcePoolConfig(DataSource dataSource, ServerProperties serverProperties, Environment environment) {
+        this.dataSource = dataSource;
+        this.serverProperties = serverProperties;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkPoolAgainstRequestConcurrency() {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+        log.info("Connection pool: maxSize={}, connectionTimeoutMs={}, leakDetectionMs={}",
+                hikari.getMaximumPoolSize(), hikari.getConnectionTimeout(), hikari.getLeakDetectionThreshold());
+
+        // Virtual threads have no request cap of their own: the pool is the limit by design
+        // and requests beyond it wait up to connection-timeout
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Virtual threads: at most {} requests use the database at once", hikari.getMaximumPoolSize());
+            return;
+        }
+        // Requests beyond the pool wait in Hikari, which is expected; connections beyond the thread count never get used
+        int threads = serverProperties.getTomcat().getThreads().getMax();
+        if (threads < hikari.getMaximumPoolSize()) {
+            log.warn("server.tomcat.threads.max ({}) is smaller than the connection pool ({}); the extra connections "
+                            + "stay idle. Lower DB_POOL_SIZE or raise SERVER_MAX_THREADS.",
+                    threads, hikari.getMaximumPoolSize());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.favian.bank_test_case.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+// Resolves spring.datasource.hikari.maximum-pool-size=0 to a size derived from the CPU count.
+// Runs after the config files are loaded, so anything else referring to the pool size sees the resolved value.
+public class DataSourcePoolSizing implements EnvironmentPostProcessor, Ordered {
+
+    static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Integer configured = environment.getProperty(MAXIMUM_POOL_SIZE, Integer.class);
+        if (configured == null || configured > 0) {
+            return;
+        }
+        int poolSize = poolSize(Runtime.getRuntime().availableProcessors());
+        environment.getPropertySources().addFirst(
+                new MapPropertySource("dataSourcePoolSizing", Map.of(MAXIMUM_POOL_SIZE, poolSize)));
+    }
+
+    static int poolSize(int cores) {
+        return cores * 2 + 1;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
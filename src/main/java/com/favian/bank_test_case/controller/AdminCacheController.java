@@ -0,0 +1,32 @@
+package com.favian.bank_test_case.controller;
+
+import com.favian.bank_test_case.dto.CacheStatsResponse;
+import com.favian.bank_test_case.service.CacheStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@Tag(name = "Admin - Caches", description = "Cache statistics for administrators")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    public AdminCacheController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get cache statistics", description = "Get size, hit, miss and eviction counts for each cache (Admin only)")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
+}
@@ -1,7 +1,11 @@
 package com.favian.bank_test_case.controller;
 
+import com.favian.bank_test_case.dto.BulkCardIssueRequest;
+import com.favian.bank_test_case.dto.BulkCardJobResponse;
+import com.favian.bank_test_case.dto.CardLookupRequest;
 import com.favian.bank_test_case.dto.CardResponse;
 import com.favian.bank_test_case.dto.CreateCardRequest;
+import com.favian.bank_test_case.service.CardIssuanceService;
 import com.favian.bank_test_case.service.CardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,11 +21,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/admin/cards")
 @Tag(name = "Admin - Cards", description = "Card management endpoints for administrators")
@@ -30,9 +38,11 @@ import org.springframework.web.bind.annotation.*;
 public class AdminCardController {
 
     private final CardService cardService;
+    private final CardIssuanceService cardIssuanceService;
 
-    public AdminCardController(CardService cardService) {
+    public AdminCardController(CardService cardService, CardIssuanceService cardIssuanceService) {
         this.cardService = cardService;
+        this.cardIssuanceService = cardIssuanceService;
     }
 
     @PostMapping
@@ -41,6 +51,40 @@ public class AdminCardController {
         return ResponseEntity.status(HttpStatus.CREATED).body(cardService.createCard(request));
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Issue cards in bulk",
+            description = "Queues one card per user id (repeat an id for several cards) and returns a job to poll (Admin only)"
+    )
+    public ResponseEntity<BulkCardJobResponse> issueCards(@Valid @RequestBody BulkCardIssueRequest request) {
+        return ResponseEntity.accepted().body(cardIssuanceService.submit(request.userIds()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @Operation(
+            summary = "Issue cards in bulk from CSV",
+            description = "Same as the JSON variant; the body is user ids, one per line or comma separated, with an optional header (Admin only)"
+    )
+    public ResponseEntity<BulkCardJobResponse> issueCardsFromCsv(InputStream csv) {
+        return ResponseEntity.accepted().body(cardIssuanceService.submitCsv(csv));
+    }
+
+    @GetMapping("/bulk/{jobId}")
+    @Operation(summary = "Get bulk issue job", description = "Progress of a bulk card issue job (Admin only)")
+    public ResponseEntity<BulkCardJobResponse> getBulkJob(
+            @Parameter(description = "Job ID returned when the bulk issue was queued")
+            @PathVariable UUID jobId
+    ) {
+        return ResponseEntity.ok(cardIssuanceService.getJob(jobId));
+    }
+
+    // POST so the full number stays out of URLs and access logs
+    @PostMapping("/search")
+    @Operation(summary = "Find card by number", description = "Exact lookup by full card number (Admin only)")
+    public ResponseEntity<CardResponse> findCardByNumber(@Valid @RequestBody CardLookupRequest request) {
+        return ResponseEntity.ok(cardService.findCardByNumber(request.cardNumber()));
+    }
+
     @GetMapping
     @Operation(summary = "Get all cards", description = "Get all cards in the system with pagination (Admin only)")
     public ResponseEntity<Page<CardResponse>> getAllCards(
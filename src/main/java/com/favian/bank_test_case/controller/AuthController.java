@@ -47,7 +47,7 @@ public class AuthController {
     @PostMapping("/refresh")
     @Operation(
             summary = "Refresh access token",
-            description = "Generate a new access token using a valid refresh token"
+            description = "Exchange a valid refresh token for a new access token and a new refresh token; the presented one stops working"
     )
     public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
         return ResponseEntity.ok(authService.refreshToken(request.refreshToken()));
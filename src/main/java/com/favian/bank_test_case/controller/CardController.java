@@ -1,11 +1,16 @@
 package com.favian.bank_test_case.controller;
 
 import com.favian.bank_test_case.dto.BalanceResponse;
+import com.favian.bank_test_case.dto.BatchTransferMode;
+import com.favian.bank_test_case.dto.BatchTransferRequest;
+import com.favian.bank_test_case.dto.BatchTransferResponse;
 import com.favian.bank_test_case.dto.CardResponse;
+import com.favian.bank_test_case.dto.CursorPage;
+import com.favian.bank_test_case.dto.LedgerEntryResponse;
 import com.favian.bank_test_case.dto.TransactionResponse;
 import com.favian.bank_test_case.dto.TransferRequest;
-import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.entity.enums.CardStatus;
+import com.favian.bank_test_case.service.BatchTransferService;
 import com.favian.bank_test_case.service.CardService;
 import com.favian.bank_test_case.service.TransactionService;
 import com.favian.bank_test_case.service.UserService;
@@ -17,6 +22,7 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -35,11 +41,13 @@ public class CardController {
     private final CardService cardService;
     private final TransactionService transactionService;
     private final UserService userService;
+    private final BatchTransferService batchTransferService;
 
-    public CardController(CardService cardService, TransactionService transactionService, UserService userService) {
+    public CardController(CardService cardService, TransactionService transactionService, UserService userService, BatchTransferService batchTransferService) {
         this.cardService = cardService;
         this.transactionService = transactionService;
         this.userService = userService;
+        this.batchTransferService = batchTransferService;
     }
 
     @GetMapping
@@ -54,25 +62,25 @@ public class CardController {
             @Parameter(description = "Sort direction (ASC or DESC)")
             @RequestParam(defaultValue = "ASC") String sortDir
     ) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Sort sort = sortDir.equalsIgnoreCase("DESC") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return ResponseEntity.ok(cardService.getUserCards(currentUser, pageable));
+        return ResponseEntity.ok(cardService.getUserCards(currentUserId, pageable));
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search cards", description = "Search cards by masked number")
+    @Operation(summary = "Search cards", description = "Search cards by the leading digits of their last four digits")
     public ResponseEntity<Page<CardResponse>> searchCards(
-            @Parameter(description = "Search term (card number)")
+            @Parameter(description = "Digits of the card's last four, e.g. 12 or 1234")
             @RequestParam @NotBlank(message = "Search query cannot be empty") String query,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
     ) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Pageable pageable = PageRequest.of(page, size);
         
-        return ResponseEntity.ok(cardService.searchUserCards(currentUser, query, pageable));
+        return ResponseEntity.ok(cardService.searchUserCards(currentUserId, query, pageable));
     }
 
     @GetMapping("/status/{status}")
@@ -83,10 +91,10 @@ public class CardController {
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
     ) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Pageable pageable = PageRequest.of(page, size);
         
-        return ResponseEntity.ok(cardService.getUserCardsByStatus(currentUser, status, pageable));
+        return ResponseEntity.ok(cardService.getUserCardsByStatus(currentUserId, status, pageable));
     }
 
     @GetMapping("/{cardId}")
@@ -95,8 +103,8 @@ public class CardController {
             @Parameter(description = "Card ID")
             @PathVariable @Positive(message = "Card ID must be positive") Long cardId
     ) {
-        User currentUser = userService.getCurrentUser();
-        return ResponseEntity.ok(cardService.getCardById(cardId, currentUser));
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(cardService.getCardById(cardId, currentUserId));
     }
 
     @GetMapping("/{cardId}/balance")
@@ -105,8 +113,8 @@ public class CardController {
             @Parameter(description = "Card ID")
             @PathVariable @Positive(message = "Card ID must be positive") Long cardId
     ) {
-        User currentUser = userService.getCurrentUser();
-        return ResponseEntity.ok(cardService.getCardBalance(cardId, currentUser));
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(cardService.getCardBalance(cardId, currentUserId));
     }
 
     @PostMapping("/{cardId}/block")
@@ -115,17 +123,38 @@ public class CardController {
             @Parameter(description = "Card ID")
             @PathVariable @Positive(message = "Card ID must be positive") Long cardId
     ) {
-        User currentUser = userService.getCurrentUser();
-        return ResponseEntity.ok(cardService.blockCard(cardId, currentUser));
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(cardService.blockCard(cardId, currentUserId));
     }
 
     @PostMapping("/transfer")
     @Operation(summary = "Transfer between own cards", description = "Transfer money between your own cards")
     public ResponseEntity<TransactionResponse> transferBetweenOwnCards(
+            @Parameter(description = "Client-generated key; retries with the same key return the original result")
+            @RequestHeader(value = "Idempotency-Key", required = false)
+            @Size(min = 1, max = 255, message = "Idempotency key must be between 1 and 255 characters") String idempotencyKey,
             @Valid @RequestBody TransferRequest request
     ) {
-        User currentUser = userService.getCurrentUser();
-        return ResponseEntity.ok(transactionService.transferBetweenOwnCards(request, currentUser));
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(transactionService.transferBetweenOwnCards(request, currentUserId, idempotencyKey));
+    }
+
+    @PostMapping("/transfers/batch")
+    @Operation(
+            summary = "Batch transfer between own cards",
+            description = "Execute many transfers in one call. ALL_OR_NOTHING (default) commits every transfer or none, " +
+                    "BEST_EFFORT commits in chunks and skips failed transfers"
+    )
+    public ResponseEntity<BatchTransferResponse> batchTransfer(
+            @Valid @RequestBody BatchTransferRequest request
+    ) {
+        Long currentUserId = userService.getCurrentUserId();
+        BatchTransferResponse response = batchTransferService.transfer(request, currentUserId);
+        // An ALL_OR_NOTHING batch with a failed item committed nothing
+        if (response.mode() == BatchTransferMode.ALL_OR_NOTHING && response.failed() > 0) {
+            return ResponseEntity.unprocessableEntity().body(response);
+        }
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{cardId}/transactions")
@@ -136,10 +165,26 @@ public class CardController {
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
     ) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         
-        return ResponseEntity.ok(transactionService.getCardTransactions(cardId, currentUser, pageable));
+        return ResponseEntity.ok(transactionService.getCardTransactions(cardId, currentUserId, pageable));
+    }
+
+    @GetMapping("/{cardId}/transactions/cursor")
+    @Operation(
+            summary = "Get card transactions by cursor",
+            description = "Newest first. Pass nextCursor from the previous response to get the next page; no total count is computed"
+    )
+    public ResponseEntity<CursorPage<TransactionResponse>> getCardTransactionsByCursor(
+            @Parameter(description = "Card ID")
+            @PathVariable @Positive(message = "Card ID must be positive") Long cardId,
+            @Parameter(description = "Opaque cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
+    ) {
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(transactionService.getCardTransactions(cardId, currentUserId, cursor, size));
     }
 
     @GetMapping("/transactions")
@@ -148,9 +193,53 @@ public class CardController {
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
     ) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         
-        return ResponseEntity.ok(transactionService.getUserTransactions(currentUser, pageable));
+        return ResponseEntity.ok(transactionService.getUserTransactions(currentUserId, pageable));
+    }
+
+    @GetMapping("/transactions/cursor")
+    @Operation(
+            summary = "Get all transactions by cursor",
+            description = "Newest first. Pass nextCursor from the previous response to get the next page; no total count is computed"
+    )
+    public ResponseEntity<CursorPage<TransactionResponse>> getAllTransactionsByCursor(
+            @Parameter(description = "Opaque cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
+    ) {
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(transactionService.getUserTransactions(currentUserId, cursor, size));
+    }
+
+    @GetMapping("/{cardId}/statement")
+    @Operation(
+            summary = "Get card statement",
+            description = "Ledger entries of a card with the running balance after each one, newest first, paged by cursor"
+    )
+    public ResponseEntity<CursorPage<LedgerEntryResponse>> getCardStatement(
+            @Parameter(description = "Card ID")
+            @PathVariable @Positive(message = "Card ID must be positive") Long cardId,
+            @Parameter(description = "Opaque cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
+    ) {
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(transactionService.getCardStatement(cardId, currentUserId, cursor, size));
+    }
+
+    @GetMapping("/ledger")
+    @Operation(
+            summary = "Get ledger",
+            description = "Debit and credit entries across all cards of the authenticated user, newest first, paged by cursor"
+    )
+    public ResponseEntity<CursorPage<LedgerEntryResponse>> getLedger(
+            @Parameter(description = "Opaque cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
+    ) {
+        Long currentUserId = userService.getCurrentUserId();
+        return ResponseEntity.ok(transactionService.getUserLedger(currentUserId, cursor, size));
     }
 }
@@ -0,0 +1,16 @@
+package com.favian.bank_test_case.dto;
+
+public record BatchTransferItemResult(
+        int index,
+        Status status,
+        TransactionResponse transaction,
+        String error
+) {
+
+    public enum Status {
+        COMPLETED,
+        FAILED,
+        ROLLED_BACK,
+        SKIPPED
+    }
+}
@@ -0,0 +1,6 @@
+package com.favian.bank_test_case.dto;
+
+public enum BatchTransferMode {
+    ALL_OR_NOTHING,
+    BEST_EFFORT
+}
@@ -0,0 +1,16 @@
+package com.favian.bank_test_case.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchTransferRequest(
+        @NotEmpty(message = "Transfers list must not be empty")
+        @Size(max = 5000, message = "A batch must not contain more than 5000 transfers")
+        List<@Valid TransferRequest> transfers,
+
+        BatchTransferMode mode
+) {
+}
@@ -0,0 +1,11 @@
+package com.favian.bank_test_case.dto;
+
+import java.util.List;
+
+public record BatchTransferResponse(
+        BatchTransferMode mode,
+        int completed,
+        int failed,
+        List<BatchTransferItemResult> results
+) {
+}
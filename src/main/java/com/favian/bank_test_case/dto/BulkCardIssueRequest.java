@@ -0,0 +1,13 @@
+package com.favian.bank_test_case.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+public record BulkCardIssueRequest(
+        @NotEmpty(message = "User ids must not be empty")
+        List<@NotNull @Positive Long> userIds
+) {
+}
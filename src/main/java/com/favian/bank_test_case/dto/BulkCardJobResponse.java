@@ -0,0 +1,16 @@
+package com.favian.bank_test_case.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record BulkCardJobResponse(
+        UUID jobId,
+        BulkCardJobStatus status,
+        int total,
+        int issued,
+        int skipped,
+        String error,
+        Instant createdAt,
+        Instant finishedAt
+) {
+}
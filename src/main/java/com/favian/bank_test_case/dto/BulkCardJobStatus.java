@@ -0,0 +1,8 @@
+package com.favian.bank_test_case.dto;
+
+public enum BulkCardJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
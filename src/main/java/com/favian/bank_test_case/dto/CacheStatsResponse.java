@@ -0,0 +1,11 @@
+package com.favian.bank_test_case.dto;
+
+public record CacheStatsResponse(
+        String name,
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount
+) {
+}
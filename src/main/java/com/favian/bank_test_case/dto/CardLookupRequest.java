@@ -0,0 +1,11 @@
+package com.favian.bank_test_case.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+public record CardLookupRequest(
+        @NotBlank(message = "Card number is required")
+        @Pattern(regexp = "[0-9 -]{12,23}", message = "Card number must contain 12 to 19 digits")
+        String cardNumber
+) {
+}
@@ -0,0 +1,17 @@
+package com.favian.bank_test_case.dto;
+
+import com.favian.bank_test_case.entity.enums.LedgerDirection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record LedgerEntryResponse(
+        Long id,
+        Long transactionId,
+        Long cardId,
+        LedgerDirection direction,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        LocalDateTime createdAt
+) {
+}
@@ -10,13 +10,17 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "cards")
+@Table(name = "cards", indexes = {
+        @Index(name = "uk_cards_pan_fingerprint", columnList = "pan_fingerprint", unique = true),
+        @Index(name = "idx_cards_user_last4", columnList = "user_id, last4")
+})
 @Getter
 @Setter
 public class Card {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,6 +33,14 @@ public class Card {
     @Column(nullable = false)
     private String maskedNumber;
 
+    // Derived from maskedNumber; card search matches on it instead of scanning masked numbers
+    @Column(nullable = false, length = 4)
+    private String last4;
+
+    // HMAC of the card number, see EncryptionService.fingerprint
+    @Column(name = "pan_fingerprint", length = 64)
+    private String panFingerprint;
+
     @Column(nullable = false)
     private LocalDate expiryDate;
 
@@ -39,4 +51,9 @@ public class Card {
     @Column(nullable = false)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    @PrePersist
+    @PreUpdate
+    protected void syncLast4() {
+        last4 = maskedNumber.substring(maskedNumber.length() - 4);
+    }
 }
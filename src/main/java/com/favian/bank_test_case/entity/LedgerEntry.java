@@ -0,0 +1,64 @@
+package com.favian.bank_test_case.entity;
+
+import com.favian.bank_test_case.entity.enums.LedgerDirection;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One row per card movement, keyed by the card owner so history and statements never join back to cards
+@Entity
+@Table(name = "user_ledger_entries", indexes = {
+        @Index(name = "idx_ledger_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_ledger_card_created", columnList = "card_id, created_at, id")
+})
+@Getter
+@Setter
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_ledger_entries_seq")
+    @SequenceGenerator(name = "user_ledger_entries_seq", sequenceName = "user_ledger_entries_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "card_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Card card;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Transaction transaction;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private LedgerDirection direction;
+
+    // Negative for debits
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    // Card balance right after this movement
+    @Column(nullable = false)
+    private BigDecimal balanceAfter;
+
+    @Column(updatable = false, nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -7,21 +7,26 @@ import lombok.Setter;
 import java.time.Instant;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_user_expiry", columnList = "user_id, expiry_date"),
+        @Index(name = "idx_refresh_tokens_expiry", columnList = "expiry_date")
+})
 @Getter
 @Setter
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    // SHA-256 of the token, hex encoded; the raw value is only ever returned to the client
+    @Column(name = "token_hash", nullable = false, unique = true, columnDefinition = "CHAR(64)")
+    private String tokenHash;
 
     @Column(nullable = false)
     private Instant expiryDate;
@@ -9,14 +9,22 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_tx_owner_created", columnList = "owner_user_id, created_at, id"),
+        @Index(name = "idx_tx_from_card_created", columnList = "from_card_id, created_at, id"),
+        @Index(name = "idx_tx_to_card_created", columnList = "to_card_id, created_at, id")
+})
 @Getter
 @Setter
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +35,11 @@ public class Transaction {
     @JoinColumn(name = "to_card_id")
     private Card toCard;
 
+    // Owner of both cards; denormalized so user history is a single index range scan
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_user_id")
+    private User owner;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransactionType type;
@@ -45,6 +58,10 @@ public class Transaction {
 
     private LocalDateTime completedAt;
 
+    // Persisted with the transaction; removal is left to ON DELETE CASCADE
+    @OneToMany(mappedBy = "transaction", cascade = CascadeType.PERSIST)
+    private List<LedgerEntry> ledgerEntries = new ArrayList<>();
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,6 @@
+package com.favian.bank_test_case.entity.enums;
+
+public enum LedgerDirection {
+    DEBIT,
+    CREDIT
+}
@@ -0,0 +1,11 @@
+package com.favian.bank_test_case.exception.exceptions;
+
+import com.favian.bank_test_case.exception.BankException;
+
+import java.util.UUID;
+
+public class BulkCardJobNotFoundException extends BankException {
+    public BulkCardJobNotFoundException(UUID jobId) {
+        super("Bulk card job not found: " + jobId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.favian.bank_test_case.exception.exceptions;
+
+import com.favian.bank_test_case.exception.BankException;
+
+public class BulkCardLimitExceededException extends BankException {
+    public BulkCardLimitExceededException(int maxCards) {
+        super("A bulk issue must not contain more than " + maxCards + " user ids");
+    }
+}
@@ -0,0 +1,9 @@
+package com.favian.bank_test_case.exception.exceptions;
+
+import com.favian.bank_test_case.exception.BankException;
+
+public class IdempotencyKeyConflictException extends BankException {
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
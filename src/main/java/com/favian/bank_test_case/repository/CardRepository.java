@@ -1,23 +1,82 @@
 package com.favian.bank_test_case.repository;
 
+import com.favian.bank_test_case.dto.CardResponse;
 import com.favian.bank_test_case.entity.Card;
-import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.entity.enums.CardStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
     
-    Page<Card> findByUser(User user, Pageable pageable);
-    
-    Page<Card> findByUserAndStatus(User user, CardStatus status, Pageable pageable);
-    
-    Page<Card> findByUserAndMaskedNumberContainingIgnoreCase(User user, String maskedNumber, Pageable pageable);
+    // List endpoints select straight into the response instead of loading managed cards
+    String SELECT_RESPONSE = "SELECT new com.favian.bank_test_case.dto.CardResponse(" +
+            "c.id, c.maskedNumber, c.expiryDate, c.status, c.balance) FROM Card c ";
+
+    @Query(value = SELECT_RESPONSE + "WHERE c.user.id = :userId",
+            countQuery = "SELECT COUNT(c) FROM Card c WHERE c.user.id = :userId")
+    Page<CardResponse> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = SELECT_RESPONSE + "WHERE c.user.id = :userId AND c.status = :status",
+            countQuery = "SELECT COUNT(c) FROM Card c WHERE c.user.id = :userId AND c.status = :status")
+    Page<CardResponse> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") CardStatus status, Pageable pageable);
+
+    // Prefix match within one user's cards, served by the (user_id, last4) index
+    @Query(value = SELECT_RESPONSE + "WHERE c.user.id = :userId AND c.last4 LIKE CONCAT(:prefix, '%')",
+            countQuery = "SELECT COUNT(c) FROM Card c WHERE c.user.id = :userId AND c.last4 LIKE CONCAT(:prefix, '%')")
+    Page<CardResponse> findByUserIdAndLast4StartingWith(@Param("userId") Long userId, @Param("prefix") String prefix, Pageable pageable);
+
+    @Query(value = SELECT_RESPONSE, countQuery = "SELECT COUNT(c) FROM Card c")
+    Page<CardResponse> findAllResponses(Pageable pageable);
     
-    Optional<Card> findByIdAndUser(Long id, User user);
+    Optional<Card> findByIdAndUserId(Long id, Long userId);
+
+    List<Card> findByIdInAndUserId(Collection<Long> ids, Long userId);
+
+    boolean existsByPanFingerprint(String panFingerprint);
+
+    Optional<Card> findByPanFingerprint(String panFingerprint);
+
+    @Query("SELECT c FROM Card c WHERE c.panFingerprint IS NULL AND c.id > :afterId ORDER BY c.id")
+    List<Card> findWithoutFingerprint(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT c.panFingerprint FROM Card c WHERE c.panFingerprint IN :fingerprints")
+    List<String> findExistingFingerprints(@Param("fingerprints") Collection<String> fingerprints);
+
+    @Query("SELECT c.status FROM Card c WHERE c.id = :id")
+    Optional<CardStatus> findStatusById(@Param("id") Long id);
+
+    @Query("SELECT c.balance FROM Card c WHERE c.id = :id")
+    BigDecimal findBalanceById(@Param("id") Long id);
+
+    // Row locks are taken in id order, the same order single transfers use, so lockers cannot deadlock each other
+    @Query(value = "SELECT id FROM cards WHERE id IN (:ids) AND user_id = :userId ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockInIdOrder(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Balance UPDATEs bypass the persistence context: pending changes are flushed first and managed cards
+    // are detached afterwards, so a stale balance held by an entity can never be written back on a later flush
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Card c SET c.balance = c.balance - :amount " +
+            "WHERE c.id = :id AND c.status = com.favian.bank_test_case.entity.enums.CardStatus.ACTIVE " +
+            "AND c.balance >= :amount")
+    int debit(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Card c SET c.balance = c.balance + :amount " +
+            "WHERE c.id = :id AND c.status = com.favian.bank_test_case.entity.enums.CardStatus.ACTIVE")
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Card c SET c.balance = c.balance + :delta WHERE c.id = :id")
+    int adjustBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
 }
@@ -0,0 +1,25 @@
+package com.favian.bank_test_case.repository;
+
+import com.favian.bank_test_case.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKeyAndExpiresAtAfter(Long userId, String idempotencyKey, Instant now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.user.id = :userId AND r.idempotencyKey = :idempotencyKey AND r.expiresAt <= :now")
+    int deleteExpiredKey(@Param("userId") Long userId, @Param("idempotencyKey") String idempotencyKey, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
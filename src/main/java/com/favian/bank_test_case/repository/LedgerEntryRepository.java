@@ -0,0 +1,40 @@
+package com.favian.bank_test_case.repository;
+
+import com.favian.bank_test_case.entity.LedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // Keyset pagination over (user_id, created_at, id) and (card_id, created_at, id); newest first
+    @Query("SELECT e FROM LedgerEntry e WHERE e.user.id = :userId " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<LedgerEntry> findLatestByUserId(@Param("userId") Long userId, Pageable limit);
+
+    @Query("SELECT e FROM LedgerEntry e WHERE e.user.id = :userId " +
+            "AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id)) " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<LedgerEntry> findByUserIdBefore(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable limit);
+
+    @Query("SELECT e FROM LedgerEntry e WHERE e.card.id = :cardId " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<LedgerEntry> findLatestByCardId(@Param("cardId") Long cardId, Pageable limit);
+
+    @Query("SELECT e FROM LedgerEntry e WHERE e.card.id = :cardId " +
+            "AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id)) " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<LedgerEntry> findByCardIdBefore(@Param("cardId") Long cardId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable limit);
+}
@@ -2,15 +2,32 @@ package com.favian.bank_test_case.repository;
 
 import com.favian.bank_test_case.entity.RefreshToken;
 import com.favian.bank_test_case.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     
     void deleteByUser(User user);
+
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.user = :user ORDER BY t.expiryDate DESC, t.id DESC")
+    List<Long> findIdsByUserNewestFirst(@Param("user") User user);
+
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.expiryDate < :now ORDER BY t.expiryDate")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable limit);
+
+    // Returns 0 when another request already consumed the token
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
 }
@@ -1,12 +1,66 @@
 package com.favian.bank_test_case.repository;
 
+import com.favian.bank_test_case.config.CacheConfig;
 import com.favian.bank_test_case.entity.Role;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
+// Every write evicts the cached roles and the user snapshots that carry role names
 public interface RoleRepository extends JpaRepository<Role,Long> {
 
+    @Cacheable(cacheNames = CacheConfig.ROLES_BY_NAME, unless = "#result == null")
     Optional<Role> findByName(String name);
 
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    <S extends Role> S save(S role);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    <S extends Role> S saveAndFlush(S role);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    <S extends Role> List<S> saveAll(Iterable<S> roles);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    <S extends Role> List<S> saveAllAndFlush(Iterable<S> roles);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void delete(Role role);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void deleteAll(Iterable<? extends Role> roles);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void deleteAllInBatch(Iterable<Role> roles);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ROLES_BY_NAME, CacheConfig.USERS_BY_EMAIL}, allEntries = true)
+    void deleteAllInBatch();
+
 }
@@ -1,5 +1,6 @@
 package com.favian.bank_test_case.repository;
 
+import com.favian.bank_test_case.dto.TransactionResponse;
 import com.favian.bank_test_case.entity.Card;
 import com.favian.bank_test_case.entity.Transaction;
 import org.springframework.data.domain.Page;
@@ -9,12 +10,69 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    
-    @Query("SELECT t FROM Transaction t WHERE t.fromCard = :card OR t.toCard = :card")
-    Page<Transaction> findByCard(@Param("card") Card card, Pageable pageable);
-    
-    @Query("SELECT t FROM Transaction t WHERE t.fromCard.user.id = :userId OR t.toCard.user.id = :userId")
-    Page<Transaction> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    String CARD_TRANSACTION_IDS = "SELECT f.id FROM Transaction f WHERE f.fromCard = :card " +
+            "UNION ALL SELECT r.id FROM Transaction r WHERE r.toCard = :card";
+
+    // History is read straight into the response; the two card joins replace one lazy load per row
+    String SELECT_RESPONSE = "SELECT new com.favian.bank_test_case.dto.TransactionResponse(" +
+            "t.id, fc.id, fc.maskedNumber, tc.id, tc.maskedNumber, " +
+            "t.type, t.amount, t.description, t.status, t.createdAt, t.completedAt) " +
+            "FROM Transaction t LEFT JOIN t.fromCard fc LEFT JOIN t.toCard tc ";
+
+    // The UNION ALL avoids an OR over both card columns, but each branch still reads every id of the card:
+    // offset pages need the full set for sorting and the count anyway
+    @Query(value = SELECT_RESPONSE + "WHERE t.id IN (" + CARD_TRANSACTION_IDS + ")",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.id IN (" + CARD_TRANSACTION_IDS + ")")
+    Page<TransactionResponse> findByCard(@Param("card") Card card, Pageable pageable);
+
+    @Query(value = SELECT_RESPONSE + "WHERE t.owner.id = :userId",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.owner.id = :userId")
+    Page<TransactionResponse> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset pagination of a card in two steps: the ids of the page, then the rows for those ids.
+    // Each branch seeks its own (card, created_at, id) index and stops after :limit rows,
+    // so a page reads at most twice its size whatever the card's history holds
+    @Query(value = "SELECT id FROM (" +
+            "(SELECT id, created_at FROM transactions WHERE from_card_id = :cardId " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT id, created_at FROM transactions WHERE to_card_id = :cardId " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit)" +
+            ") page ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findLatestIdsByCard(@Param("cardId") Long cardId, @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM (" +
+            "(SELECT id, created_at FROM transactions WHERE from_card_id = :cardId " +
+            "AND (created_at < :createdAt OR (created_at = :createdAt AND id < :id)) " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT id, created_at FROM transactions WHERE to_card_id = :cardId " +
+            "AND (created_at < :createdAt OR (created_at = :createdAt AND id < :id)) " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit)" +
+            ") page ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByCardBefore(@Param("cardId") Long cardId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   @Param("limit") int limit);
+
+    @Query(SELECT_RESPONSE + "WHERE t.id IN :ids ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findResponsesByIds(@Param("ids") List<Long> ids);
+
+    @Query(SELECT_RESPONSE + "WHERE t.owner.id = :userId " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findLatestByUserId(@Param("userId") Long userId, Pageable limit);
+
+    @Query(SELECT_RESPONSE + "WHERE t.owner.id = :userId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findByUserIdBefore(@Param("userId") Long userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable limit);
 }
@@ -1,15 +1,36 @@
 package com.favian.bank_test_case.repository;
 
+import com.favian.bank_test_case.config.CacheConfig;
 import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.security.UserCredentials;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
+
+    // Cached by email as a detached snapshot, so callers never share a mutable entity
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, unless = "#result == null")
+    default Optional<UserCredentials> findCredentialsByEmail(String email) {
+        return findByEmail(email).map(UserCredentials::of);
+    }
     
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.email = :email")
+    int updatePasswordHash(@Param("email") String email, @Param("passwordHash") String passwordHash);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,19 @@
+package com.favian.bank_test_case.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+
+// Principal built straight from access token claims, so authenticated requests need no user lookup.
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        Collection<? extends GrantedAuthority> authorities
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,37 @@
+package com.favian.bank_test_case.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+// Picks the highest BCrypt cost whose hash time on this machine stays within the target.
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final int SAMPLES = 3;
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration target, int minCost, int maxCost) {
+        String salt = BCrypt.gensalt(minCost);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        // Every extra cost step doubles the work
+        int cost = minCost;
+        long estimate = best;
+        while (cost < maxCost && estimate * 2 <= target.toNanos()) {
+            estimate *= 2;
+            cost++;
+        }
+        log.info("BCrypt cost calibrated: cost={}, estimatedHashMs={}, targetMs={}",
+                cost, estimate / 1_000_000, target.toMillis());
+        return cost;
+    }
+}
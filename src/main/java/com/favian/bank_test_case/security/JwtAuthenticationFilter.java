@@ -1,6 +1,7 @@
 package com.favian.bank_test_case.security;
 
 import com.favian.bank_test_case.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -38,17 +39,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String jwt = authHeader.substring(7).trim();
-        String userEmail = jwtService.extractUsername(jwt);
+        Claims claims = jwtService.verify(jwt);
+        String userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-
-            if (jwtService.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+            UsernamePasswordAuthenticationToken authToken = null;
+            AuthenticatedUser principal = jwtService.toAuthenticatedUser(claims);
+
+            if (principal != null) {
+                authToken = new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+            } else {
+                // Tokens issued before user id and roles were embedded still resolve the user from the database
+                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+                if (jwtService.isTokenValid(claims, userDetails)) {
+                    authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
+                }
+            }
+
+            if (authToken != null) {
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
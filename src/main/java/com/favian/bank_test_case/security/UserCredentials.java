@@ -0,0 +1,27 @@
+package com.favian.bank_test_case.security;
+
+import com.favian.bank_test_case.entity.Role;
+import com.favian.bank_test_case.entity.User;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Immutable copy of what authentication needs from a user; this, not the entity, is what the user cache holds.
+public record UserCredentials(
+        Long id,
+        String email,
+        String passwordHash,
+        Set<String> roles
+) {
+
+    public static UserCredentials of(User user) {
+        return new UserCredentials(
+                user.getId(),
+                user.getEmail(),
+                user.getPasswordHash(),
+                user.getRoles().stream()
+                        .map(Role::getName)
+                        .collect(Collectors.toUnmodifiableSet())
+        );
+    }
+}
@@ -7,18 +7,19 @@ import com.favian.bank_test_case.entity.Role;
 import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.exception.exceptions.InvalidCredentialsException;
 import com.favian.bank_test_case.exception.exceptions.RoleNotFoundException;
+import com.favian.bank_test_case.exception.exceptions.TooManyRequestsException;
 import com.favian.bank_test_case.exception.exceptions.UserAlreadyExistsException;
 import com.favian.bank_test_case.exception.exceptions.UserNotFoundException;
 import com.favian.bank_test_case.repository.RoleRepository;
 import com.favian.bank_test_case.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -27,22 +28,24 @@ import org.springframework.stereotype.Service;
 @Service
 public class AuthService {
 
+    static final String LOGIN_TIMER = "bank.auth.login";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final RoleRepository roleRepository;
+    private final MeterRegistry meterRegistry;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, RefreshTokenService refreshTokenService, AuthenticationManager authenticationManager, UserDetailsService userDetailsService, RoleRepository roleRepository) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, RefreshTokenService refreshTokenService, AuthenticationManager authenticationManager, RoleRepository roleRepository, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
         this.roleRepository = roleRepository;
+        this.meterRegistry = meterRegistry;
     }
 
     public AuthResponse register(RegisterRequest request) {
@@ -66,36 +69,45 @@ public class AuthService {
         userRepository.save(user);
         log.info("User registered successfully: {}", request.email());
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String accessToken = jwtService.generateAccessToken(userDetails);
+        String accessToken = jwtService.generateAccessToken(user);
         String refreshToken = refreshTokenService.createRefreshToken(user);
 
         return new AuthResponse(accessToken, refreshToken);
     }
 
     public AuthResponse login(LoginRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.email(), request.password())
-            );
-        } catch (BadCredentialsException ex) {
-            log.warn("Login failed: invalid credentials for {}", request.email());
-            throw new InvalidCredentialsException();
-        } catch (AuthenticationException ex) {
-            log.warn("Login failed: authentication error for {}", request.email());
-            throw new InvalidCredentialsException();
+            try {
+                authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(request.email(), request.password())
+                );
+            } catch (BadCredentialsException ex) {
+                log.warn("Login failed: invalid credentials for {}", request.email());
+                outcome = "invalid_credentials";
+                throw new InvalidCredentialsException();
+            } catch (AuthenticationException ex) {
+                log.warn("Login failed: authentication error for {}", request.email());
+                outcome = "invalid_credentials";
+                throw new InvalidCredentialsException();
+            } catch (TooManyRequestsException ex) {
+                outcome = "throttled";
+                throw ex;
+            }
+
+            User user = userRepository.findByEmail(request.email())
+                    .orElseThrow(() -> new UserNotFoundException("email", request.email()));
+
+            String accessToken = jwtService.generateAccessToken(user);
+            String refreshToken = refreshTokenService.createRefreshToken(user);
+
+            log.info("User logged in successfully: {}", request.email());
+            outcome = "success";
+            return new AuthResponse(accessToken, refreshToken);
+        } finally {
+            sample.stop(meterRegistry.timer(LOGIN_TIMER, "outcome", outcome));
         }
-
-        User user = userRepository.findByEmail(request.email())
-                .orElseThrow(() -> new UserNotFoundException("email", request.email()));
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-
-        String accessToken = jwtService.generateAccessToken(userDetails);
-        String refreshToken = refreshTokenService.createRefreshToken(user);
-
-        log.info("User logged in successfully: {}", request.email());
-        return new AuthResponse(accessToken, refreshToken);
     }
 
     public AuthResponse refreshToken(String refreshToken) {
@@ -103,10 +115,10 @@ public class AuthService {
         refreshTokenService.verifyExpiration(token);
 
         User user = token.getUser();
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String accessToken = jwtService.generateAccessToken(userDetails);
+        String accessToken = jwtService.generateAccessToken(user);
+        String rotatedRefreshToken = refreshTokenService.rotate(token);
 
         log.debug("Token refreshed for user: {}", user.getEmail());
-        return new AuthResponse(accessToken, refreshToken);
+        return new AuthResponse(accessToken, rotatedRefreshToken);
     }
 }
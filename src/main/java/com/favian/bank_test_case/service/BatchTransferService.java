@@ -0,0 +1,155 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.BatchTransferItemResult;
+import com.favian.bank_test_case.dto.BatchTransferMode;
+import com.favian.bank_test_case.dto.BatchTransferRequest;
+import com.favian.bank_test_case.dto.BatchTransferResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Transaction;
+import com.favian.bank_test_case.exception.BankException;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Slf4j
+@Service
+public class BatchTransferService {
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transfer.batch.chunk-size:100}")
+    private int chunkSize;
+
+    public BatchTransferService(TransactionService transactionService, TransactionRepository transactionRepository, CardRepository cardRepository, PlatformTransactionManager transactionManager) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BatchTransferResponse transfer(BatchTransferRequest request, Long userId) {
+        BatchTransferMode mode = request.mode() != null ? request.mode() : BatchTransferMode.ALL_OR_NOTHING;
+        List<TransferRequest> transfers = request.transfers();
+        BatchTransferItemResult[] results = new BatchTransferItemResult[transfers.size()];
+
+        // A lock conflict in ALL_OR_NOTHING rolls back the whole batch and reaches the client as 409
+        if (mode == BatchTransferMode.ALL_OR_NOTHING) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!runChunk(transfers, 0, transfers.size(), userId, results, false)) {
+                    status.setRollbackOnly();
+                }
+            });
+        } else {
+            for (int from = 0; from < transfers.size(); from += chunkSize) {
+                int chunkStart = from;
+                int chunkEnd = Math.min(from + chunkSize, transfers.size());
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            runChunk(transfers, chunkStart, chunkEnd, userId, results, true));
+                } catch (DataAccessException e) {
+                    // Earlier chunks stay committed; only this chunk's transfers were rolled back
+                    log.warn("Batch transfer chunk rolled back: items={}..{}, userId={}, reason={}",
+                            chunkStart, chunkEnd - 1, userId, e.getMessage());
+                    markChunkFailed(results, chunkStart, chunkEnd, e);
+                }
+            }
+        }
+
+        int completed = 0;
+        for (BatchTransferItemResult result : results) {
+            if (result.status() == BatchTransferItemResult.Status.COMPLETED) {
+                completed++;
+            }
+        }
+        log.info("Batch transfer finished: mode={}, size={}, completed={}, userId={}",
+                mode, transfers.size(), completed, userId);
+        return new BatchTransferResponse(mode, completed, transfers.size() - completed, Arrays.asList(results));
+    }
+
+    // Returns false when an item failed and the surrounding transaction must not commit.
+    private boolean runChunk(List<TransferRequest> transfers, int start, int end, Long userId,
+                             BatchTransferItemResult[] results, boolean bestEffort) {
+        // Every card of the chunk is locked up front in id order; transfers inside the chunk then only re-enter
+        // locks this transaction already holds, so the chunk cannot deadlock with other batches or single transfers
+        Set<Long> cardIds = new TreeSet<>();
+        for (int i = start; i < end; i++) {
+            cardIds.add(transfers.get(i).fromCardId());
+            cardIds.add(transfers.get(i).toCardId());
+        }
+        cardRepository.lockInIdOrder(cardIds, userId);
+
+        List<Transaction> pending = new ArrayList<>(Math.min(chunkSize, end - start));
+        List<Integer> pendingIndexes = new ArrayList<>(Math.min(chunkSize, end - start));
+
+        for (int i = start; i < end; i++) {
+            TransferRequest transfer = transfers.get(i);
+            try {
+                pending.add(transactionService.executeTransfer(transfer, userId));
+                pendingIndexes.add(i);
+            } catch (BankException e) {
+                results[i] = new BatchTransferItemResult(i, BatchTransferItemResult.Status.FAILED, null, e.getMessage());
+                if (!bestEffort) {
+                    markAborted(results, i);
+                    return false;
+                }
+            }
+
+            if (pending.size() == chunkSize) {
+                persist(pending, pendingIndexes, results);
+            }
+        }
+        persist(pending, pendingIndexes, results);
+        return true;
+    }
+
+    private void persist(List<Transaction> pending, List<Integer> pendingIndexes, BatchTransferItemResult[] results) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Transaction> saved = transactionRepository.saveAll(pending);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = pendingIndexes.get(i);
+            results[index] = new BatchTransferItemResult(index, BatchTransferItemResult.Status.COMPLETED,
+                    transactionService.mapToTransactionResponse(saved.get(i)), null);
+        }
+        pending.clear();
+        pendingIndexes.clear();
+    }
+
+    private void markChunkFailed(BatchTransferItemResult[] results, int start, int end, DataAccessException cause) {
+        String reason = cause instanceof PessimisticLockingFailureException
+                ? "Chunk rolled back: the cards are being changed by another request, retry shortly"
+                : "Chunk rolled back: database error";
+        for (int i = start; i < end; i++) {
+            results[i] = new BatchTransferItemResult(i, BatchTransferItemResult.Status.FAILED, null, reason);
+        }
+    }
+
+    private void markAborted(BatchTransferItemResult[] results, int failedIndex) {
+        String reason = "Batch aborted: transfer #" + failedIndex + " failed";
+        for (int i = 0; i < results.length; i++) {
+            if (i == failedIndex) {
+                continue;
+            }
+            BatchTransferItemResult.Status status = i < failedIndex
+                    ? BatchTransferItemResult.Status.ROLLED_BACK
+                    : BatchTransferItemResult.Status.SKIPPED;
+            results[i] = new BatchTransferItemResult(i, status, null, reason);
+        }
+    }
+}
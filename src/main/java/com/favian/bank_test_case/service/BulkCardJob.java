@@ -0,0 +1,54 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.BulkCardJobResponse;
+import com.favian.bank_test_case.dto.BulkCardJobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Progress of one bulk issuance, updated by the worker after every chunk and read by pollers.
+class BulkCardJob {
+
+    private final UUID id = UUID.randomUUID();
+    private final int total;
+    private final Instant createdAt = Instant.now();
+    private final AtomicInteger issued = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    private volatile BulkCardJobStatus status = BulkCardJobStatus.QUEUED;
+    private volatile String error;
+    private volatile Instant finishedAt;
+
+    BulkCardJob(int total) {
+        this.total = total;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    void start() {
+        status = BulkCardJobStatus.RUNNING;
+    }
+
+    void progress(int issuedCards, int skippedIds) {
+        issued.addAndGet(issuedCards);
+        skipped.addAndGet(skippedIds);
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = BulkCardJobStatus.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        status = BulkCardJobStatus.FAILED;
+    }
+
+    BulkCardJobResponse toResponse() {
+        return new BulkCardJobResponse(id, status, total, issued.get(), skipped.get(), error, createdAt, finishedAt);
+    }
+}
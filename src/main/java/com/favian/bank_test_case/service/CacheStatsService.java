@@ -0,0 +1,38 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    public List<CacheStatsResponse> getCacheStats() {
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .filter(cache -> cache.getNativeCache() instanceof Cache<?, ?>)
+                .map(cache -> {
+                    Cache<?, ?> nativeCache = (Cache<?, ?>) cache.getNativeCache();
+                    CacheStats stats = nativeCache.stats();
+                    return new CacheStatsResponse(
+                            cache.getName(),
+                            nativeCache.estimatedSize(),
+                            stats.hitCount(),
+                            stats.missCount(),
+                            stats.hitRate(),
+                            stats.evictionCount()
+                    );
+                })
+                .toList();
+    }
+}
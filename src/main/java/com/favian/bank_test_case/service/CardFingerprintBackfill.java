@@ -0,0 +1,119 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.repository.CardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Fills pan_fingerprint for cards issued before it existed, decrypting each number once.
+@Slf4j
+@Service
+public class CardFingerprintBackfill {
+
+    private final CardRepository cardRepository;
+    private final EncryptionService encryptionService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public CardFingerprintBackfill(CardRepository cardRepository,
+                                   EncryptionService encryptionService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${card.fingerprint-backfill.enabled:true}") boolean enabled,
+                                   @Value("${card.fingerprint-backfill.chunk-size:500}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.encryptionService = encryptionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+    }
+
+    // New cards always get a fingerprint, so one pass after startup is enough; it runs off the main thread
+    // so readiness is not held up. Enable it on a single node when several share the database.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofPlatform().name("card-fingerprint-backfill").daemon().start(() -> {
+            try {
+                int updated = backfill();
+                if (updated > 0) {
+                    log.info("Card fingerprints backfilled: count={}", updated);
+                }
+            } catch (RuntimeException e) {
+                log.error("Card fingerprint backfill stopped", e);
+            }
+        });
+    }
+
+    public int backfill() {
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            long from = afterId;
+            List<Long> chunkIds = new ArrayList<>(chunkSize);
+            List<Card> cards;
+            try {
+                cards = transactionTemplate.execute(status -> fingerprintChunk(from, chunkIds));
+            } catch (DataIntegrityViolationException e) {
+                // Another node, createCard or bulk issuance stored one of these numbers after the probe;
+                // the chunk is rolled back and its cards stay NULL until the next pass
+                log.warn("Card fingerprint chunk skipped on duplicate number: cardIds={}", chunkIds);
+                afterId = chunkIds.get(chunkIds.size() - 1);
+                continue;
+            }
+            if (cards.isEmpty()) {
+                return updated;
+            }
+            afterId = cards.get(cards.size() - 1).getId();
+            updated += (int) cards.stream().filter(card -> card.getPanFingerprint() != null).count();
+        }
+    }
+
+    // Cards whose number cannot be decrypted or is already fingerprinted elsewhere are left NULL and logged
+    private List<Card> fingerprintChunk(long afterId, List<Long> chunkIds) {
+        List<Card> cards = cardRepository.findWithoutFingerprint(afterId, PageRequest.of(0, chunkSize));
+        cards.forEach(card -> chunkIds.add(card.getId()));
+        Map<String, Card> byFingerprint = new HashMap<>();
+        for (Card card : cards) {
+            String fingerprint;
+            try {
+                fingerprint = encryptionService.fingerprint(encryptionService.decrypt(card.getEncryptedNumber()));
+            } catch (RuntimeException e) {
+                log.warn("Card number could not be decrypted, fingerprint skipped: cardId={}", card.getId());
+                continue;
+            }
+            if (byFingerprint.putIfAbsent(fingerprint, card) != null) {
+                log.warn("Duplicate card number, fingerprint skipped: cardId={}, sameAs={}",
+                        card.getId(), byFingerprint.get(fingerprint).getId());
+            }
+        }
+
+        Set<String> stored = byFingerprint.isEmpty()
+                ? Set.of()
+                : new HashSet<>(cardRepository.findExistingFingerprints(byFingerprint.keySet()));
+        byFingerprint.forEach((fingerprint, card) -> {
+            if (stored.contains(fingerprint)) {
+                log.warn("Duplicate card number, fingerprint skipped: cardId={}", card.getId());
+            } else {
+                card.setPanFingerprint(fingerprint);
+            }
+        });
+        return cards;
+    }
+}
@@ -0,0 +1,220 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.BulkCardJobResponse;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.exception.exceptions.BulkCardJobNotFoundException;
+import com.favian.bank_test_case.exception.exceptions.BulkCardLimitExceededException;
+import com.favian.bank_test_case.exception.exceptions.InvalidCsvException;
+import com.favian.bank_test_case.exception.exceptions.TooManyRequestsException;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class CardIssuanceService {
+
+    private final CardService cardService;
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxCards;
+    // Queued and running jobs are never evicted; only finished ones age out of the cache
+    private final Map<UUID, BulkCardJob> activeJobs = new ConcurrentHashMap<>();
+    private final Cache<UUID, BulkCardJob> finishedJobs;
+
+    // Jobs run one at a time; each chunk fans number generation and encryption out over the common pool
+    private final ThreadPoolExecutor worker;
+
+    public CardIssuanceService(CardService cardService,
+                               CardRepository cardRepository,
+                               UserRepository userRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${card.bulk.chunk-size:1000}") int chunkSize,
+                               @Value("${card.bulk.max-cards:100000}") int maxCards,
+                               @Value("${card.bulk.job-ttl:24h}") Duration jobTtl,
+                               @Value("${card.bulk.max-jobs:1000}") long maxJobs,
+                               @Value("${card.bulk.max-queued-jobs:16}") int maxQueuedJobs) {
+        this.cardService = cardService;
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxCards = maxCards;
+        // Job state lives on this node only: progress must be polled on the node that accepted the job,
+        // and a restart loses it
+        this.finishedJobs = Caffeine.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(jobTtl)
+                .build();
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs),
+                Thread.ofPlatform().name("card-issuance").daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public BulkCardJobResponse submit(List<Long> userIds) {
+        if (userIds.size() > maxCards) {
+            throw new BulkCardLimitExceededException(maxCards);
+        }
+        BulkCardJob job = new BulkCardJob(userIds.size());
+        activeJobs.put(job.getId(), job);
+        List<Long> ids = List.copyOf(userIds);
+        try {
+            worker.execute(() -> run(job, ids));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getId());
+            throw new TooManyRequestsException("Too many bulk card jobs queued, retry later");
+        }
+        log.info("Bulk card issuance queued: jobId={}, cards={}", job.getId(), ids.size());
+        return job.toResponse();
+    }
+
+    public BulkCardJobResponse submitCsv(InputStream csv) {
+        return submit(parseUserIds(csv));
+    }
+
+    public BulkCardJobResponse getJob(UUID jobId) {
+        BulkCardJob job = activeJobs.get(jobId);
+        if (job == null) {
+            job = finishedJobs.getIfPresent(jobId);
+        }
+        if (job == null) {
+            throw new BulkCardJobNotFoundException(jobId);
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run(BulkCardJob job, List<Long> userIds) {
+        job.start();
+        try {
+            for (int from = 0; from < userIds.size(); from += chunkSize) {
+                List<Long> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+                int issued = transactionTemplate.execute(status -> issueChunk(chunk));
+                job.progress(issued, chunk.size() - issued);
+            }
+            job.complete();
+            log.info("Bulk card issuance finished: {}", job.toResponse());
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage());
+            log.error("Bulk card issuance failed: jobId={}", job.getId(), e);
+        } finally {
+            finishedJobs.put(job.getId(), job);
+            activeJobs.remove(job.getId());
+        }
+    }
+
+    // Unknown user ids are skipped; sequence ids let the inserts go out in JDBC batches
+    private int issueChunk(List<Long> userIds) {
+        Set<Long> existing = new HashSet<>(userRepository.findExistingIds(userIds));
+        List<Card> cards = userIds.stream()
+                .filter(existing::contains)
+                .map(userRepository::getReferenceById)
+                .toList()
+                .parallelStream()
+                .map(cardService::newCard)
+                .toList();
+        cardRepository.saveAll(withUniqueNumbers(cards));
+        return cards.size();
+    }
+
+    // Regenerates numbers that clash with stored cards or within the chunk, one fingerprint IN query per round
+    private List<Card> withUniqueNumbers(List<Card> cards) {
+        List<Card> accepted = new ArrayList<>(cards.size());
+        Set<String> fingerprints = new HashSet<>();
+        List<Card> pending = cards;
+        for (int attempt = 1; ; attempt++) {
+            Set<String> stored = new HashSet<>(cardRepository.findExistingFingerprints(
+                    pending.stream().map(Card::getPanFingerprint).toList()));
+            List<Card> clashing = new ArrayList<>();
+            for (Card card : pending) {
+                if (stored.contains(card.getPanFingerprint()) || !fingerprints.add(card.getPanFingerprint())) {
+                    clashing.add(card);
+                } else {
+                    accepted.add(card);
+                }
+            }
+            if (clashing.isEmpty()) {
+                return accepted;
+            }
+            if (attempt == CardService.MAX_NUMBER_ATTEMPTS) {
+                throw new IllegalStateException("Could not generate unique card numbers");
+            }
+            log.debug("Regenerating {} clashing card numbers", clashing.size());
+            pending = clashing.parallelStream()
+                    .map(card -> cardService.newCard(card.getUser()))
+                    .toList();
+        }
+    }
+
+    // One user id per line or comma separated; a first line where no value is numeric is treated as a header
+    private List<Long> parseUserIds(InputStream csv) {
+        List<Long> userIds = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                List<Long> lineIds = new ArrayList<>();
+                String invalid = null;
+                for (String value : line.split(",")) {
+                    String trimmed = value.strip();
+                    if (trimmed.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        lineIds.add(Long.parseLong(trimmed));
+                    } catch (NumberFormatException e) {
+                        if (invalid == null) {
+                            invalid = trimmed;
+                        }
+                    }
+                }
+                if (invalid != null && (lineNumber > 1 || !lineIds.isEmpty())) {
+                    throw new InvalidCsvException("Invalid user id '" + invalid + "' on line " + lineNumber);
+                }
+                userIds.addAll(lineIds);
+                if (userIds.size() > maxCards) {
+                    throw new BulkCardLimitExceededException(maxCards);
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidCsvException("Could not read CSV body");
+        }
+        if (userIds.isEmpty()) {
+            throw new InvalidCsvException("CSV body contains no user ids");
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,64 @@
+package com.favian.bank_test_case.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+
+// 16-digit PANs: issuer BIN, random account digits and a Luhn check digit.
+@Component
+public class CardNumberGenerator {
+
+    static final int LENGTH = 16;
+
+    // SecureRandom is thread-safe but synchronizes internally, so bulk issuance gets one per thread.
+    // Virtual threads live for one request, so a thread-local would seed a new instance per card; they share one.
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+    private static final SecureRandom SHARED_RANDOM = new SecureRandom();
+
+    private final String bin;
+
+    public CardNumberGenerator(@Value("${card.number.bin:400000}") String bin) {
+        if (!bin.matches("\\d{6,8}")) {
+            throw new IllegalStateException("card.number.bin must be 6 to 8 digits");
+        }
+        this.bin = bin;
+    }
+
+    public String generate() {
+        SecureRandom random = Thread.currentThread().isVirtual() ? SHARED_RANDOM : RANDOM.get();
+        char[] digits = new char[LENGTH];
+        bin.getChars(0, bin.length(), digits, 0);
+        for (int i = bin.length(); i < LENGTH - 1; i++) {
+            digits[i] = (char) ('0' + random.nextInt(10));
+        }
+        digits[LENGTH - 1] = (char) ('0' + checkDigit(digits, LENGTH - 1));
+        return new String(digits);
+    }
+
+    public static boolean isValid(String number) {
+        if (number == null || !number.matches("\\d{12,19}")) {
+            return false;
+        }
+        char[] digits = number.toCharArray();
+        return checkDigit(digits, digits.length - 1) == digits[digits.length - 1] - '0';
+    }
+
+    // Luhn: double every second digit moving left from the check digit position
+    private static int checkDigit(char[] digits, int length) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = digits[i] - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
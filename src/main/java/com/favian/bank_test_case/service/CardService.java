@@ -20,49 +20,55 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Random;
 
 @Slf4j
 @Service
 public class CardService {
 
+    static final int MAX_NUMBER_ATTEMPTS = 5;
+
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final EncryptionService encryptionService;
+    private final CardNumberGenerator cardNumberGenerator;
 
-    public CardService(CardRepository cardRepository, UserRepository userRepository, EncryptionService encryptionService) {
+    public CardService(CardRepository cardRepository, UserRepository userRepository, EncryptionService encryptionService, CardNumberGenerator cardNumberGenerator) {
         this.cardRepository = cardRepository;
         this.userRepository = userRepository;
         this.encryptionService = encryptionService;
+        this.cardNumberGenerator = cardNumberGenerator;
     }
 
     @Transactional(readOnly = true)
-    public Page<CardResponse> getUserCards(User user, Pageable pageable) {
-        return cardRepository.findByUser(user, pageable)
-                .map(this::mapToCardResponse);
+    public Page<CardResponse> getUserCards(Long userId, Pageable pageable) {
+        return cardRepository.findByUserId(userId, pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<CardResponse> getUserCardsByStatus(User user, CardStatus status, Pageable pageable) {
-        return cardRepository.findByUserAndStatus(user, status, pageable)
-                .map(this::mapToCardResponse);
+    public Page<CardResponse> getUserCardsByStatus(Long userId, CardStatus status, Pageable pageable) {
+        return cardRepository.findByUserIdAndStatus(userId, status, pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<CardResponse> searchUserCards(User user, String searchTerm, Pageable pageable) {
-        return cardRepository.findByUserAndMaskedNumberContainingIgnoreCase(user, searchTerm, pageable)
-                .map(this::mapToCardResponse);
+    public Page<CardResponse> searchUserCards(Long userId, String searchTerm, Pageable pageable) {
+        // Only the last four digits are stored in clear, so longer input is cut down to them
+        String digits = searchTerm.replaceAll("\\D", "");
+        if (digits.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        String prefix = digits.length() > 4 ? digits.substring(digits.length() - 4) : digits;
+        return cardRepository.findByUserIdAndLast4StartingWith(userId, prefix, pageable);
     }
 
     @Transactional(readOnly = true)
-    public CardResponse getCardById(Long cardId, User user) {
-        Card card = findCardByIdAndUser(cardId, user);
+    public CardResponse getCardById(Long cardId, Long userId) {
+        Card card = findCardByIdAndUser(cardId, userId);
         return mapToCardResponse(card);
     }
 
     @Transactional(readOnly = true)
-    public BalanceResponse getCardBalance(Long cardId, User user) {
-        Card card = findCardByIdAndUser(cardId, user);
+    public BalanceResponse getCardBalance(Long cardId, Long userId) {
+        Card card = findCardByIdAndUser(cardId, userId);
         return new BalanceResponse(
                 card.getId(),
                 card.getMaskedNumber(),
@@ -71,8 +77,8 @@ public class CardService {
     }
 
     @Transactional
-    public CardResponse blockCard(Long cardId, User user) {
-        Card card = findCardByIdAndUser(cardId, user);
+    public CardResponse blockCard(Long cardId, Long userId) {
+        Card card = findCardByIdAndUser(cardId, userId);
         
         if (card.getStatus() == CardStatus.BLOCKED) {
             throw new CardBlockedException("Card is already blocked");
@@ -80,13 +86,22 @@ public class CardService {
         
         card.setStatus(CardStatus.BLOCKED);
         Card savedCard = cardRepository.save(card);
-        log.info("Card blocked by user: cardId={}, user={}", cardId, user.getEmail());
+        log.info("Card blocked by user: cardId={}, userId={}", cardId, userId);
         return mapToCardResponse(savedCard);
     }
 
+    // Exact lookup by full number through the pan_fingerprint index; nothing is decrypted
+    @Transactional(readOnly = true)
+    public CardResponse findCardByNumber(String cardNumber) {
+        String digits = cardNumber.replaceAll("[ -]", "");
+        return cardRepository.findByPanFingerprint(encryptionService.fingerprint(digits))
+                .map(this::mapToCardResponse)
+                .orElseThrow(() -> new CardNotFoundException("Card not found"));
+    }
+
     @Transactional(readOnly = true)
-    public Card findCardByIdAndUser(Long cardId, User user) {
-        return cardRepository.findByIdAndUser(cardId, user)
+    public Card findCardByIdAndUser(Long cardId, Long userId) {
+        return cardRepository.findByIdAndUserId(cardId, userId)
                 .orElseThrow(() -> new CardNotFoundException("Card not found or does not belong to user"));
     }
 
@@ -96,16 +111,15 @@ public class CardService {
         User user = userRepository.findById(request.userId())
                 .orElseThrow(() -> new UserNotFoundException("id", request.userId().toString()));
         
-        Card card = new Card();
-        card.setUser(user);
-        
-        String cardNumber = generateCardNumber();
-        card.setEncryptedNumber(encryptionService.encrypt(cardNumber));
-        card.setMaskedNumber(maskCardNumber(cardNumber));
-        card.setExpiryDate(LocalDate.now().plusYears(3));
-        card.setStatus(CardStatus.ACTIVE);
-        card.setBalance(BigDecimal.ZERO);
-        
+        Card card = newCard(user);
+        // The unique index on pan_fingerprint is the final guard; this probe just avoids a failed insert
+        for (int attempt = 1; cardRepository.existsByPanFingerprint(card.getPanFingerprint()); attempt++) {
+            if (attempt == MAX_NUMBER_ATTEMPTS) {
+                throw new IllegalStateException("Could not generate a unique card number");
+            }
+            card = newCard(user);
+        }
+
         Card savedCard = cardRepository.save(card);
         log.info("Card created: cardId={}, userId={}, masked={}", savedCard.getId(), user.getId(), savedCard.getMaskedNumber());
         return mapToCardResponse(savedCard);
@@ -113,8 +127,7 @@ public class CardService {
     
     @Transactional(readOnly = true)
     public Page<CardResponse> getAllCards(Pageable pageable) {
-        return cardRepository.findAll(pageable)
-                .map(this::mapToCardResponse);
+        return cardRepository.findAllResponses(pageable);
     }
     
     @Transactional
@@ -152,7 +165,22 @@ public class CardService {
         log.info("Card deleted: cardId={}", cardId);
     }
 
-    private CardResponse mapToCardResponse(Card card) {
+    // Unsaved active card with a fresh encrypted number; safe to call from several threads
+    Card newCard(User user) {
+        Card card = new Card();
+        card.setUser(user);
+
+        String cardNumber = cardNumberGenerator.generate();
+        card.setEncryptedNumber(encryptionService.encrypt(cardNumber));
+        card.setPanFingerprint(encryptionService.fingerprint(cardNumber));
+        card.setMaskedNumber(maskCardNumber(cardNumber));
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.ZERO);
+        return card;
+    }
+
+    CardResponse mapToCardResponse(Card card) {
         return new CardResponse(
                 card.getId(),
                 card.getMaskedNumber(),
@@ -162,17 +190,6 @@ public class CardService {
         );
     }
     
-    private String generateCardNumber() {
-        Random random = new Random();
-        StringBuilder cardNumber = new StringBuilder();
-        
-        for (int i = 0; i < 16; i++) {
-            cardNumber.append(random.nextInt(10));
-        }
-        
-        return cardNumber.toString();
-    }
-
     private String maskCardNumber(String cardNumber) {
         if (cardNumber.length() != 16) {
             return cardNumber;
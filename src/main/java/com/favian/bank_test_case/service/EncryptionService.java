@@ -1,28 +1,68 @@
 package com.favian.bank_test_case.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 @Slf4j
 @Service
 public class EncryptionService {
 
+    // Values without a version prefix were written with AES/ECB and are still readable.
+    private static final String VERSION_PREFIX = "v1:";
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int MAX_POOLED_CIPHERS = 64;
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+    static final String ENCRYPTION_TIMER = "bank.encryption";
+
     @Value("${card.encryption-key:12345678901234567890123456789012}")
     private String secret;
 
+    @Value("${card.fingerprint-key:fingerprint-key-change-me-0000000}")
+    private String fingerprintSecret;
+
     private SecretKeySpec secretKeySpec;
+    private SecretKeySpec fingerprintKeySpec;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    // Cipher instances are not thread-safe and expensive to look up, so they are reused through bounded pools.
+    private final Deque<Cipher> gcmCiphers = new ConcurrentLinkedDeque<>();
+    private final Deque<Cipher> legacyCiphers = new ConcurrentLinkedDeque<>();
+    private final Deque<Mac> fingerprintMacs = new ConcurrentLinkedDeque<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
+
+    public EncryptionService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.encryptTimer = meterRegistry.timer(ENCRYPTION_TIMER, "operation", "encrypt");
+        this.decryptTimer = meterRegistry.timer(ENCRYPTION_TIMER, "operation", "decrypt");
+    }
 
     @PostConstruct
     public void init() {
         log.info("Encryption key length: {} characters", secret.length());
-        
+
         if (secret.length() < 32) {
             secret = String.format("%-32s", secret).replace(' ', '0');
             log.warn("Encryption key was too short, padded to 32 characters");
@@ -30,31 +70,131 @@ public class EncryptionService {
             secret = secret.substring(0, 32);
             log.warn("Encryption key was too long, truncated to 32 characters");
         }
-        
+
         secretKeySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "AES");
+        fingerprintKeySpec = new SecretKeySpec(fingerprintSecret.getBytes(StandardCharsets.UTF_8), FINGERPRINT_ALGORITHM);
         log.info("EncryptionService initialized successfully");
     }
 
     public String encrypt(String value) {
+        byte[] encrypted = encryptBytes(value.getBytes(StandardCharsets.UTF_8));
+        return VERSION_PREFIX + Base64.getEncoder().encodeToString(encrypted);
+    }
+
+    public String decrypt(String encryptedValue) {
+        if (!encryptedValue.startsWith(VERSION_PREFIX)) {
+            return new String(decryptLegacy(Base64.getDecoder().decode(encryptedValue)), StandardCharsets.UTF_8);
+        }
+        byte[] decoded = Base64.getDecoder().decode(encryptedValue.substring(VERSION_PREFIX.length()));
+        return new String(decryptBytes(decoded), StandardCharsets.UTF_8);
+    }
+
+    // Deterministic keyed hash of a card number, hex encoded; equal numbers give equal fingerprints
+    // so uniqueness and lookups use an index instead of decrypting stored numbers.
+    public String fingerprint(String cardNumber) {
+        Mac mac = borrowFingerprintMac();
+        try {
+            return HexFormat.of().formatHex(mac.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            if (fingerprintMacs.size() < MAX_POOLED_CIPHERS) {
+                fingerprintMacs.offerFirst(mac);
+            }
+        }
+    }
+
+    // Returns IV followed by ciphertext and GCM tag.
+    public byte[] encryptBytes(byte[] plaintext) {
+        byte[] output = new byte[IV_LENGTH + plaintext.length + TAG_LENGTH_BITS / 8];
+        encrypt(ByteBuffer.wrap(plaintext), ByteBuffer.wrap(output));
+        return output;
+    }
+
+    public byte[] decryptBytes(byte[] encrypted) {
+        byte[] output = new byte[Math.max(encrypted.length - IV_LENGTH - TAG_LENGTH_BITS / 8, 0)];
+        decrypt(ByteBuffer.wrap(encrypted), ByteBuffer.wrap(output));
+        return output;
+    }
+
+    public void encrypt(ByteBuffer plaintext, ByteBuffer output) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        Cipher cipher = borrow(gcmCiphers, GCM_TRANSFORMATION);
         try {
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
-            byte[] encrypted = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encrypted);
-        } catch (Exception e) {
+            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            output.put(iv);
+            cipher.doFinal(plaintext, output);
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("Encryption failed", e);
+        } finally {
+            release(gcmCiphers, cipher);
+            sample.stop(encryptTimer);
         }
     }
 
-    public String decrypt(String encryptedValue) {
+    public void decrypt(ByteBuffer encrypted, ByteBuffer output) {
+        if (encrypted.remaining() < IV_LENGTH + TAG_LENGTH_BITS / 8) {
+            throw new RuntimeException("Decryption failed: value is too short");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        byte[] iv = new byte[IV_LENGTH];
+        encrypted.get(iv);
+        Cipher cipher = borrow(gcmCiphers, GCM_TRANSFORMATION);
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.doFinal(encrypted, output);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Decryption failed", e);
+        } finally {
+            release(gcmCiphers, cipher);
+            sample.stop(decryptTimer);
+        }
+    }
+
+    private byte[] decryptLegacy(byte[] encrypted) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Cipher cipher = borrow(legacyCiphers, LEGACY_TRANSFORMATION);
         try {
-            Cipher cipher = Cipher.getInstance("AES");
             cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
-            byte[] decoded = Base64.getDecoder().decode(encryptedValue);
-            byte[] decrypted = cipher.doFinal(decoded);
-            return new String(decrypted, StandardCharsets.UTF_8);
-        } catch (Exception e) {
+            return cipher.doFinal(encrypted);
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("Decryption failed", e);
+        } finally {
+            release(legacyCiphers, cipher);
+            sample.stop(decryptTimer);
+        }
+    }
+
+    private Cipher borrow(Deque<Cipher> pool, String transformation) {
+        Cipher cipher = pool.pollFirst();
+        if (cipher != null) {
+            return cipher;
+        }
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(transformation + " is not available", e);
+        }
+    }
+
+    private Mac borrowFingerprintMac() {
+        Mac mac = fingerprintMacs.pollFirst();
+        if (mac != null) {
+            return mac;
+        }
+        try {
+            mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+            mac.init(fingerprintKeySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(FINGERPRINT_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private void release(Deque<Cipher> pool, Cipher cipher) {
+        // size() walks the deque, but the pool is small and this keeps it bounded under bursts
+        if (pool.size() < MAX_POOLED_CIPHERS) {
+            pool.offerFirst(cipher);
         }
     }
 }
@@ -0,0 +1,162 @@
+package com.favian.bank_test_case.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.favian.bank_test_case.dto.TransactionResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.IdempotencyRecord;
+import com.favian.bank_test_case.exception.exceptions.IdempotencyKeyConflictException;
+import com.favian.bank_test_case.repository.IdempotencyRecordRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import com.favian.bank_test_case.security.Hashing;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              UserRepository userRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              @Value("${idempotency.cache-size:10000}") long cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        // Entries live until the record's own expiresAt, however late in its life it was loaded
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, StoredResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, StoredResponse stored, long currentTime) {
+                        return Math.max(Duration.between(Instant.now(), stored.expiresAt()).toNanos(), 0);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, StoredResponse stored, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, stored, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, StoredResponse stored, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TransactionResponse> findTransferResponse(Long userId, String idempotencyKey, TransferRequest request) {
+        String cacheKey = cacheKey(userId, idempotencyKey);
+        StoredResponse stored = cache.getIfPresent(cacheKey);
+
+        if (stored == null) {
+            Optional<IdempotencyRecord> record = idempotencyRecordRepository
+                    .findByUserIdAndIdempotencyKeyAndExpiresAtAfter(userId, idempotencyKey, Instant.now());
+            if (record.isEmpty()) {
+                return Optional.empty();
+            }
+            stored = new StoredResponse(record.get().getRequestHash(), readResponse(record.get().getResponseBody()),
+                    record.get().getExpiresAt());
+            cache.put(cacheKey, stored);
+        }
+
+        if (!stored.requestHash().equals(hash(request))) {
+            throw new IdempotencyKeyConflictException("Idempotency key was already used with a different request");
+        }
+        return Optional.of(stored.response());
+    }
+
+    @Transactional
+    public void storeTransferResponse(Long userId, String idempotencyKey, TransferRequest request, TransactionResponse response) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        // Only the foreign key is written, so a reference is enough and the user row is not loaded
+        record.setUser(userRepository.getReferenceById(userId));
+        record.setIdempotencyKey(idempotencyKey);
+        record.setRequestHash(hash(request));
+        record.setResponseBody(writeResponse(response));
+        record.setExpiresAt(Instant.now().plus(ttl));
+
+        // An expired row for this key may still be waiting for the purge; it no longer protects anything
+        idempotencyRecordRepository.deleteExpiredKey(userId, idempotencyKey, Instant.now());
+        try {
+            idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key committed first; this one is rolled back.
+            throw new IdempotencyKeyConflictException("A request with this idempotency key is already being processed");
+        }
+
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), response, record.getExpiresAt());
+        String cacheKey = cacheKey(userId, idempotencyKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(cacheKey, stored);
+                }
+            });
+        } else {
+            cache.put(cacheKey, stored);
+        }
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron:0 0 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Expired idempotency keys purged: count={}", deleted);
+        }
+    }
+
+    private String cacheKey(Long userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+
+    private String hash(TransferRequest request) {
+        String canonical = request.fromCardId() + "|" + request.toCardId() + "|"
+                + request.amount().stripTrailingZeros().toPlainString() + "|"
+                + (request.description() != null ? request.description() : "");
+        return Hashing.sha256Hex(canonical);
+    }
+
+    private String writeResponse(TransactionResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize transaction response", e);
+        }
+    }
+
+    private TransactionResponse readResponse(String body) {
+        try {
+            return objectMapper.readValue(body, TransactionResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize stored transaction response", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, TransactionResponse response, Instant expiresAt) {
+    }
+}
@@ -1,45 +1,153 @@
 package com.favian.bank_test_case.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.favian.bank_test_case.entity.Role;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.security.AuthenticatedUser;
+import com.favian.bank_test_case.security.Hashing;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    static final String VERIFY_TIMER = "bank.jwt.verify";
+
     @Value("${jwt.secret:dGVzdF9zZWNyZXRfa2V5X2Zvcl9qd3RfdG9rZW5fZ2VuZXJhdGlvbl8zMl9ieXRlcw==}")
     private String secret;
 
     @Value("${jwt.access-expiration:3600000}")
     private long accessExpiration;
 
+    @Value("${jwt.claims-cache-size:10000}")
+    private long claimsCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedClaims;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer cachedVerifyTimer;
+    private final Timer parsedVerifyTimer;
+    private final Timer invalidVerifyTimer;
+
+    // verify runs on every authenticated request, so its timers are registered once instead of looked up per call
+    public JwtService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.cachedVerifyTimer = meterRegistry.timer(VERIFY_TIMER, "outcome", "cached");
+        this.parsedVerifyTimer = meterRegistry.timer(VERIFY_TIMER, "outcome", "verified");
+        this.invalidVerifyTimer = meterRegistry.timer(VERIFY_TIMER, "outcome", "invalid");
+    }
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        // Entries live exactly until the token expires, so a cache hit never outlives the token.
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String generateAccessToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, userDetails.getUsername(), accessExpiration);
     }
 
+    public String generateAccessToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLES_CLAIM, user.getRoles().stream()
+                .map(Role::getName)
+                .toList());
+        return createToken(claims, user.getEmail(), accessExpiration);
+    }
+
     private String createToken(Map<String, Object> claims, String subject, long expiration) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Verifies signature and expiry once per token; throws JwtException when the token is not valid.
+    public Claims verify(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String cacheKey = Hashing.sha256Hex(token);
+        Claims claims = verifiedClaims.getIfPresent(cacheKey);
+        if (claims != null) {
+            sample.stop(cachedVerifyTimer);
+            return claims;
+        }
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (RuntimeException e) {
+            sample.stop(invalidVerifyTimer);
+            throw e;
+        }
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(cacheKey, claims);
+        }
+        sample.stop(parsedVerifyTimer);
+        return claims;
+    }
+
+    // Returns null for tokens issued without user id and roles claims.
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+        return new AuthenticatedUser(
+                userId,
+                claims.getSubject(),
+                roles.stream()
+                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                        .toList()
+        );
     }
 
     public String extractUsername(String token) {
@@ -51,24 +159,16 @@ public class JwtService {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && (claims.getExpiration() == null || claims.getExpiration().after(new Date()));
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verify(token), userDetails);
     }
 }
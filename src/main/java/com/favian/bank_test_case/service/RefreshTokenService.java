@@ -5,35 +5,58 @@ import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.exception.exceptions.RefreshTokenExpiredException;
 import com.favian.bank_test_case.exception.exceptions.RefreshTokenNotFoundException;
 import com.favian.bank_test_case.repository.RefreshTokenRepository;
-import lombok.RequiredArgsConstructor;
+import com.favian.bank_test_case.security.Hashing;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Base64;
+import java.util.List;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private static final int TOKEN_BYTES = 32;
+
     private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long refreshExpiration;
+    private final int maxTokensPerUser;
+    private final int purgeChunkSize;
+    private final SecureRandom secureRandom = new SecureRandom();
 
-    @Value("${jwt.refresh-expiration:86400000}")
-    private long refreshExpiration;
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-expiration:86400000}") long refreshExpiration,
+                               @Value("${jwt.refresh-max-per-user:5}") int maxTokensPerUser,
+                               @Value("${jwt.refresh-purge-chunk-size:1000}") int purgeChunkSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.refreshExpiration = refreshExpiration;
+        this.maxTokensPerUser = maxTokensPerUser;
+        this.purgeChunkSize = purgeChunkSize;
+    }
 
+    // Each login starts a session; the oldest ones beyond the per-user cap are revoked.
+    @Transactional
     public String createRefreshToken(User user) {
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshExpiration));
-        
-        refreshTokenRepository.save(refreshToken);
-        return refreshToken.getToken();
+        List<Long> ids = refreshTokenRepository.findIdsByUserNewestFirst(user);
+        if (ids.size() >= maxTokensPerUser) {
+            refreshTokenRepository.deleteAllByIdInBatch(ids.subList(maxTokensPerUser - 1, ids.size()));
+        }
+        return issue(user);
     }
 
     public RefreshToken findByToken(String token) {
-        return refreshTokenRepository.findByToken(token)
+        return refreshTokenRepository.findByTokenHash(Hashing.sha256Hex(token))
                 .orElseThrow(() -> new RefreshTokenNotFoundException());
     }
 
@@ -45,8 +68,57 @@ public class RefreshTokenService {
         return token;
     }
 
+    // Refresh tokens are single use: the presented one is deleted and replaced.
+    // The delete decides the race when the same token is presented twice at once.
+    @Transactional
+    public String rotate(RefreshToken token) {
+        if (refreshTokenRepository.deleteByIdReturningCount(token.getId()) == 0) {
+            throw new RefreshTokenNotFoundException();
+        }
+        return issue(token.getUser());
+    }
+
     @Transactional
     public void deleteByUser(User user) {
         refreshTokenRepository.deleteByUser(user);
     }
+
+    @Scheduled(cron = "${jwt.refresh-purge-cron:0 */15 * * * *}")
+    public void purgeExpiredOnSchedule() {
+        int deleted = purgeExpired();
+        if (deleted > 0) {
+            log.info("Expired refresh tokens purged: count={}", deleted);
+        }
+    }
+
+    // Deletes in chunks, each in its own short transaction, so a large backlog never holds locks for long
+    public int purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, purgeChunkSize));
+                refreshTokenRepository.deleteAllByIdInBatch(ids);
+                return ids.size();
+            });
+            deleted += chunk;
+            if (chunk < purgeChunkSize) {
+                return deleted;
+            }
+        }
+    }
+
+    private String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(user);
+        refreshToken.setTokenHash(Hashing.sha256Hex(token));
+        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshExpiration));
+
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
 }
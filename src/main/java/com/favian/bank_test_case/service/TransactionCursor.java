@@ -0,0 +1,43 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.TransactionResponse;
+import com.favian.bank_test_case.entity.LedgerEntry;
+import com.favian.bank_test_case.exception.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position in a (createdAt DESC, id DESC) ordered history, encoded as an opaque URL-safe string.
+public record TransactionCursor(LocalDateTime createdAt, Long id) {
+
+    public static TransactionCursor of(TransactionResponse transaction) {
+        return new TransactionCursor(transaction.createdAt(), transaction.id());
+    }
+
+    public static TransactionCursor of(LedgerEntry entry) {
+        return new TransactionCursor(entry.getCreatedAt(), entry.getId());
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0) {
+                throw new InvalidCursorException();
+            }
+            return new TransactionCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,108 +1,283 @@
 package com.favian.bank_test_case.service;
 
+import com.favian.bank_test_case.dto.CursorPage;
+import com.favian.bank_test_case.dto.LedgerEntryResponse;
 import com.favian.bank_test_case.dto.TransactionResponse;
 import com.favian.bank_test_case.dto.TransferRequest;
 import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.LedgerEntry;
 import com.favian.bank_test_case.entity.Transaction;
-import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.entity.enums.CardStatus;
+import com.favian.bank_test_case.entity.enums.LedgerDirection;
 import com.favian.bank_test_case.entity.enums.TransactionStatus;
 import com.favian.bank_test_case.entity.enums.TransactionType;
+import com.favian.bank_test_case.exception.BankException;
 import com.favian.bank_test_case.exception.exceptions.CardBlockedException;
+import com.favian.bank_test_case.exception.exceptions.CardNotFoundException;
 import com.favian.bank_test_case.exception.exceptions.InsufficientFundsException;
 import com.favian.bank_test_case.exception.exceptions.InvalidAmountException;
 import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.LedgerEntryRepository;
 import com.favian.bank_test_case.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
+    static final String TRANSFER_TIMER = "bank.transfer";
+
     private final TransactionRepository transactionRepository;
     private final CardRepository cardRepository;
     private final CardService cardService;
+    private final IdempotencyService idempotencyService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Transactional
+    public TransactionResponse transferBetweenOwnCards(TransferRequest request, Long userId) {
+        return transferBetweenOwnCards(request, userId, null);
+    }
 
+    // Timed by outcome; the commit happens in the surrounding proxy and is not part of the measurement
     @Transactional
-    public TransactionResponse transferBetweenOwnCards(TransferRequest request, User user) {
+    public TransactionResponse transferBetweenOwnCards(TransferRequest request, Long userId, String idempotencyKey) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            if (idempotencyKey != null) {
+                Optional<TransactionResponse> previous = idempotencyService.findTransferResponse(userId, idempotencyKey, request);
+                if (previous.isPresent()) {
+                    log.info("Transfer replayed for idempotency key: transactionId={}, userId={}", previous.get().id(), userId);
+                    outcome = "replayed";
+                    return previous.get();
+                }
+            }
+
+            Transaction transaction = transactionRepository.save(executeTransfer(request, userId));
+            TransactionResponse response = mapToTransactionResponse(transaction);
+
+            if (idempotencyKey != null) {
+                idempotencyService.storeTransferResponse(userId, idempotencyKey, request, response);
+            }
+            outcome = "completed";
+            return response;
+        } catch (InsufficientFundsException e) {
+            outcome = "insufficient_funds";
+            throw e;
+        } catch (CardBlockedException e) {
+            outcome = "blocked";
+            throw e;
+        } catch (BankException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(TRANSFER_TIMER, "outcome", outcome));
+        }
+    }
+
+    // Moves the money and returns the completed transaction unsaved; callers own the DB transaction.
+    Transaction executeTransfer(TransferRequest request, Long userId) {
         if (request.amount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new InvalidAmountException("Transfer amount must be greater than 0");
         }
 
-        Card fromCard = cardService.findCardByIdAndUser(request.fromCardId(), user);
-        Card toCard = cardService.findCardByIdAndUser(request.toCardId(), user);
-
-        if (fromCard.getId().equals(toCard.getId())) {
+        if (request.fromCardId().equals(request.toCardId())) {
             throw new InvalidAmountException("Cannot transfer to the same card");
         }
 
-        if (fromCard.getStatus() == CardStatus.BLOCKED) {
-            throw new CardBlockedException("Source card is blocked");
+        Card fromCard = null;
+        Card toCard = null;
+        for (Card card : cardRepository.findByIdInAndUserId(List.of(request.fromCardId(), request.toCardId()), userId)) {
+            if (card.getId().equals(request.fromCardId())) {
+                fromCard = card;
+            } else {
+                toCard = card;
+            }
         }
-        if (toCard.getStatus() == CardStatus.BLOCKED) {
-            throw new CardBlockedException("Destination card is blocked");
+        if (fromCard == null || toCard == null) {
+            throw new CardNotFoundException("Card not found or does not belong to user");
         }
 
-        if (fromCard.getBalance().compareTo(request.amount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds on source card");
+        // Balances are moved with conditional UPDATEs instead of read-modify-write, and
+        // always lowest card id first so opposite transfers over one pair cannot deadlock.
+        // If the second UPDATE is rejected the first one is reverted, so a failed transfer
+        // leaves no trace even when the caller keeps the surrounding transaction going.
+        BigDecimal amount = request.amount();
+        if (fromCard.getId() < toCard.getId()) {
+            debit(fromCard, amount);
+            try {
+                credit(toCard, amount);
+            } catch (BankException e) {
+                cardRepository.adjustBalance(fromCard.getId(), amount);
+                throw e;
+            }
+        } else {
+            credit(toCard, amount);
+            try {
+                debit(fromCard, amount);
+            } catch (BankException e) {
+                cardRepository.adjustBalance(toCard.getId(), amount.negate());
+                throw e;
+            }
         }
 
         Transaction transaction = new Transaction();
         transaction.setFromCard(fromCard);
         transaction.setToCard(toCard);
+        transaction.setOwner(fromCard.getUser());
         transaction.setType(TransactionType.TRANSFER);
         transaction.setAmount(request.amount());
         transaction.setDescription(request.description());
-        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setCompletedAt(LocalDateTime.now());
 
-        try {
-            fromCard.setBalance(fromCard.getBalance().subtract(request.amount()));
-            toCard.setBalance(toCard.getBalance().add(request.amount()));
-
-            cardRepository.save(fromCard);
-            cardRepository.save(toCard);
-
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            transaction.setCompletedAt(LocalDateTime.now());
-            
-            log.info("Transfer completed: amount={}, from={}, to={}, user={}", 
-                    request.amount(), fromCard.getMaskedNumber(), toCard.getMaskedNumber(), user.getEmail());
-
-        } catch (Exception e) {
-            transaction.setStatus(TransactionStatus.FAILED);
-            log.error("Transfer failed: from={}, to={}, amount={}, error={}", 
-                    fromCard.getId(), toCard.getId(), request.amount(), e.getMessage());
-            throw e;
-        } finally {
-            transaction = transactionRepository.save(transaction);
+        // Both cards are still locked by the UPDATEs above, so these reads are the balances this transfer produced
+        addLedgerEntry(transaction, fromCard, LedgerDirection.DEBIT, amount.negate());
+        addLedgerEntry(transaction, toCard, LedgerDirection.CREDIT, amount);
+
+        log.info("Transfer completed: amount={}, from={}, to={}, userId={}",
+                request.amount(), fromCard.getMaskedNumber(), toCard.getMaskedNumber(), userId);
+
+        return transaction;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<TransactionResponse> getUserTransactions(Long userId, Pageable pageable) {
+        return transactionRepository.findByUserId(userId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<TransactionResponse> getCardTransactions(Long cardId, Long userId, Pageable pageable) {
+        Card card = cardService.findCardByIdAndUser(cardId, userId);
+        return transactionRepository.findByCard(card, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getUserTransactions(Long userId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionResponse> transactions;
+        if (cursor == null) {
+            transactions = transactionRepository.findLatestByUserId(userId, limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findByUserIdBefore(userId, position.createdAt(), position.id(), limit);
         }
+        return toCursorPage(transactions, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getCardTransactions(Long cardId, Long userId, String cursor, int size) {
+        Card card = cardService.findCardByIdAndUser(cardId, userId);
+        List<Long> ids;
+        if (cursor == null) {
+            ids = transactionRepository.findLatestIdsByCard(card.getId(), size + 1);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            ids = transactionRepository.findIdsByCardBefore(card.getId(), position.createdAt(), position.id(), size + 1);
+        }
+        List<TransactionResponse> transactions = ids.isEmpty() ? List.of() : transactionRepository.findResponsesByIds(ids);
+        return toCursorPage(transactions, size);
+    }
 
-        return mapToTransactionResponse(transaction);
+    // One extra row is fetched to tell whether another page exists without running a count query
+    private CursorPage<TransactionResponse> toCursorPage(List<TransactionResponse> transactions, int size) {
+        boolean hasNext = transactions.size() > size;
+        List<TransactionResponse> page = hasNext ? List.copyOf(transactions.subList(0, size)) : transactions;
+        String nextCursor = hasNext ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(page, page.size(), hasNext, nextCursor);
     }
 
     @Transactional(readOnly = true)
-    public Page<TransactionResponse> getUserTransactions(User user, Pageable pageable) {
-        return transactionRepository.findByUserId(user.getId(), pageable)
-                .map(this::mapToTransactionResponse);
+    public CursorPage<LedgerEntryResponse> getUserLedger(Long userId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<LedgerEntry> entries;
+        if (cursor == null) {
+            entries = ledgerEntryRepository.findLatestByUserId(userId, limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            entries = ledgerEntryRepository.findByUserIdBefore(userId, position.createdAt(), position.id(), limit);
+        }
+        return toLedgerPage(entries, size);
     }
 
     @Transactional(readOnly = true)
-    public Page<TransactionResponse> getCardTransactions(Long cardId, User user, Pageable pageable) {
-        Card card = cardService.findCardByIdAndUser(cardId, user);
-        return transactionRepository.findByCard(card, pageable)
-                .map(this::mapToTransactionResponse);
+    public CursorPage<LedgerEntryResponse> getCardStatement(Long cardId, Long userId, String cursor, int size) {
+        Card card = cardService.findCardByIdAndUser(cardId, userId);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<LedgerEntry> entries;
+        if (cursor == null) {
+            entries = ledgerEntryRepository.findLatestByCardId(card.getId(), limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            entries = ledgerEntryRepository.findByCardIdBefore(card.getId(), position.createdAt(), position.id(), limit);
+        }
+        return toLedgerPage(entries, size);
+    }
+
+    private CursorPage<LedgerEntryResponse> toLedgerPage(List<LedgerEntry> entries, int size) {
+        boolean hasNext = entries.size() > size;
+        List<LedgerEntry> page = hasNext ? entries.subList(0, size) : entries;
+        String nextCursor = hasNext ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(
+                page.stream().map(this::mapToLedgerEntryResponse).toList(),
+                page.size(),
+                hasNext,
+                nextCursor
+        );
+    }
+
+    private void addLedgerEntry(Transaction transaction, Card card, LedgerDirection direction, BigDecimal amount) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setUser(card.getUser());
+        entry.setCard(card);
+        entry.setTransaction(transaction);
+        entry.setDirection(direction);
+        entry.setAmount(amount);
+        entry.setBalanceAfter(cardRepository.findBalanceById(card.getId()));
+        transaction.getLedgerEntries().add(entry);
     }
 
-    private TransactionResponse mapToTransactionResponse(Transaction transaction) {
+    private void debit(Card card, BigDecimal amount) {
+        if (cardRepository.debit(card.getId(), amount) == 0) {
+            throwInactive(card, "Source");
+            throw new InsufficientFundsException("Insufficient funds on source card");
+        }
+    }
+
+    private void credit(Card card, BigDecimal amount) {
+        if (cardRepository.credit(card.getId(), amount) == 0) {
+            throwInactive(card, "Destination");
+            throw new CardNotFoundException("Card not found with id: " + card.getId());
+        }
+    }
+
+    private void throwInactive(Card card, String side) {
+        CardStatus status = cardRepository.findStatusById(card.getId())
+                .orElseThrow(() -> new CardNotFoundException("Card not found with id: " + card.getId()));
+        if (status == CardStatus.BLOCKED) {
+            throw new CardBlockedException(side + " card is blocked");
+        }
+        if (status != CardStatus.ACTIVE) {
+            throw new CardBlockedException(side + " card is not active");
+        }
+    }
+
+    TransactionResponse mapToTransactionResponse(Transaction transaction) {
         return new TransactionResponse(
                 transaction.getId(),
                 transaction.getFromCard() != null ? transaction.getFromCard().getId() : null,
@@ -117,4 +292,17 @@ public class TransactionService {
                 transaction.getCompletedAt()
         );
     }
+
+    // Card and transaction ids come from the lazy proxies, so no join is needed
+    LedgerEntryResponse mapToLedgerEntryResponse(LedgerEntry entry) {
+        return new LedgerEntryResponse(
+                entry.getId(),
+                entry.getTransaction().getId(),
+                entry.getCard().getId(),
+                entry.getDirection(),
+                entry.getAmount(),
+                entry.getBalanceAfter(),
+                entry.getCreatedAt()
+        );
+    }
 }
@@ -1,12 +1,16 @@
 package com.favian.bank_test_case.service;
 
+import com.favian.bank_test_case.config.CacheConfig;
 import com.favian.bank_test_case.dto.UpdateUserRequest;
 import com.favian.bank_test_case.dto.UserResponse;
 import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.exception.exceptions.UserNotFoundException;
 import com.favian.bank_test_case.repository.UserRepository;
+import com.favian.bank_test_case.security.AuthenticatedUser;
+import com.favian.bank_test_case.security.UserCredentials;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
@@ -23,15 +27,16 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
 
-    public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new UserNotFoundException("No authenticated user found");
+    // Token principals carry the id, so authenticated requests resolve the user without a query
+    public Long getCurrentUserId() {
+        Object principal = getCurrentPrincipal();
+
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.id();
         }
 
-        Object principal = authentication.getPrincipal();
         String email;
 
         if (principal instanceof UserDetails) {
@@ -40,9 +45,20 @@ public class UserService {
             email = principal.toString();
         }
 
-        return userRepository.findByEmail(email)
+        return userRepository.findCredentialsByEmail(email)
+                .map(UserCredentials::id)
                 .orElseThrow(() -> new UserNotFoundException("email", email));
     }
+
+    private Object getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UserNotFoundException("No authenticated user found");
+        }
+
+        return authentication.getPrincipal();
+    }
     
     // Admin methods
     @Transactional(readOnly = true)
@@ -62,6 +78,8 @@ public class UserService {
     public UserResponse updateUser(Long userId, UpdateUserRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("id", userId.toString()));
+        // Only the old address can be cached; the new one belonged to nobody until now
+        evictCachedCredentials(user.getEmail());
         
         if (request.email() != null && !request.email().isBlank()) {
             user.setEmail(request.email());
@@ -85,10 +103,16 @@ public class UserService {
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("id", userId.toString()));
+        evictCachedCredentials(user.getEmail());
         userRepository.delete(user);
         log.info("User deleted: userId={}", userId);
     }
     
+    // The cache manager is transaction aware, so the entry is dropped only once the change commits
+    private void evictCachedCredentials(String email) {
+        cacheManager.getCache(CacheConfig.USERS_BY_EMAIL).evict(email);
+    }
+
     private UserResponse mapToUserResponse(User user) {
         return new UserResponse(
                 user.getId(),
@@ -0,0 +1,38 @@
+package com.favian.bank_test_case;
+
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.entity.enums.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Unsaved users and cards for tests that work against the database; callers save and delete them
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static User newUser(String email, String phone) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("hashedPassword");
+        user.setPhone(phone);
+        return user;
+    }
+
+    public static Card newCard(User user, String maskedNumber) {
+        return newCard(user, maskedNumber, BigDecimal.valueOf(1000));
+    }
+
+    public static Card newCard(User user, String maskedNumber, BigDecimal balance) {
+        Card card = new Card();
+        card.setUser(user);
+        card.setEncryptedNumber("encrypted");
+        card.setMaskedNumber(maskedNumber);
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(balance);
+        return card;
+    }
+}
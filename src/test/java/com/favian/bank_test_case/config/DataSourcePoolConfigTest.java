@@ -0,0 +1,58 @@
+package com.favian.bank_test_case.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class DataSourcePoolConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void poolSize_shouldFollowCpuCountUnlessConfigured() {
+        // ARRANGE
+        StandardEnvironment auto = environmentWithPoolSize("0");
+        StandardEnvironment explicit = environmentWithPoolSize("30");
+
+        // ACT
+        new DataSourcePoolSizing().postProcessEnvironment(auto, null);
+        new DataSourcePoolSizing().postProcessEnvironment(explicit, null);
+
+        // ASSERT
+        assertEquals(9, DataSourcePoolSizing.poolSize(4));
+        assertEquals(Runtime.getRuntime().availableProcessors() * 2 + 1,
+                auto.getProperty(DataSourcePoolSizing.MAXIMUM_POOL_SIZE, Integer.class));
+        assertEquals(30, explicit.getProperty(DataSourcePoolSizing.MAXIMUM_POOL_SIZE, Integer.class));
+        assertEquals(20, ((HikariDataSource) dataSource).getMaximumPoolSize());
+    }
+
+    @Test
+    public void pool_shouldPublishWaitAndActiveConnectionMetrics() {
+        // ACT & ASSERT
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").timer());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").gauge());
+    }
+
+    private StandardEnvironment environmentWithPoolSize(String size) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(
+                new MapPropertySource("test", Map.of(DataSourcePoolSizing.MAXIMUM_POOL_SIZE, size)));
+        return environment;
+    }
+}
@@ -0,0 +1,65 @@
+package com.favian.bank_test_case.config;
+
+import com.favian.bank_test_case.repository.RoleRepository;
+import com.favian.bank_test_case.service.EncryptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Test
+    public void prometheus_shouldExposeHistogramsOfServicesAndRepositories() throws Exception {
+        // ARRANGE
+        roleRepository.findByName("USER");
+        encryptionService.decrypt(encryptionService.encrypt("4000001234567899"));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"findByName\"")))
+                .andExpect(content().string(containsString("bank_encryption_seconds_bucket{")))
+                .andExpect(content().string(containsString("bank_jwt_verify_seconds_count{")))
+                .andExpect(content().string(containsString("bank_password_hashing_queue{")));
+    }
+
+    @Test
+    public void prometheus_shouldRequireAdminOutsideScrapeNetwork() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/actuator/prometheus")
+                        .with(request -> {
+                            request.setRemoteAddr("10.20.30.40");
+                            return request;
+                        }))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                        .with(user("admin@test.com").roles("ADMIN"))
+                        .with(request -> {
+                            request.setRemoteAddr("10.20.30.40");
+                            return request;
+                        }))
+                .andExpect(status().isOk());
+    }
+}
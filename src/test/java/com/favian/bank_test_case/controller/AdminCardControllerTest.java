@@ -1,9 +1,12 @@
 package com.favian.bank_test_case.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.favian.bank_test_case.dto.BulkCardJobResponse;
+import com.favian.bank_test_case.dto.BulkCardJobStatus;
 import com.favian.bank_test_case.dto.CardResponse;
 import com.favian.bank_test_case.dto.CreateCardRequest;
 import com.favian.bank_test_case.entity.enums.CardStatus;
+import com.favian.bank_test_case.service.CardIssuanceService;
 import com.favian.bank_test_case.service.CardService;
 import com.favian.bank_test_case.service.JwtService;
 import org.junit.jupiter.api.Test;
@@ -16,7 +19,10 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -35,6 +41,9 @@ public class AdminCardControllerTest {
     @MockBean
     private CardService cardService;
 
+    @MockBean
+    private CardIssuanceService cardIssuanceService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -72,4 +81,22 @@ public class AdminCardControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("BLOCKED"));
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void issueCards_shouldQueueBulkJob() throws Exception {
+        // ARRANGE
+        BulkCardJobResponse response = new BulkCardJobResponse(
+                UUID.randomUUID(), BulkCardJobStatus.QUEUED, 2, 0, 0, null, Instant.now(), null
+        );
+        when(cardIssuanceService.submit(List.of(1L, 2L))).thenReturn(response);
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/admin/cards/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\": [1, 2]}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value(response.jobId().toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
 }
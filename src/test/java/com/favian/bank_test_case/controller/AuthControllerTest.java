@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.favian.bank_test_case.dto.AuthResponse;
 import com.favian.bank_test_case.dto.LoginRequest;
 import com.favian.bank_test_case.dto.RegisterRequest;
+import com.favian.bank_test_case.exception.exceptions.TooManyRequestsException;
 import com.favian.bank_test_case.service.AuthService;
 import com.favian.bank_test_case.service.JwtService;
 import org.junit.jupiter.api.Test;
@@ -63,4 +64,20 @@ public class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").value("access-token"));
     }
+
+    @Test
+    public void login_shouldReturn429WhenHashingIsSaturated() throws Exception {
+        // ARRANGE
+        LoginRequest request = new LoginRequest("test@example.com", "password123");
+        when(authService.login(any(LoginRequest.class)))
+                .thenThrow(new TooManyRequestsException("Too many password checks in progress, retry shortly"));
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(429));
+    }
 }
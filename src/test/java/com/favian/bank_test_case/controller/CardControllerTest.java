@@ -1,6 +1,10 @@
 package com.favian.bank_test_case.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.favian.bank_test_case.dto.BatchTransferItemResult;
+import com.favian.bank_test_case.dto.BatchTransferMode;
+import com.favian.bank_test_case.dto.BatchTransferRequest;
+import com.favian.bank_test_case.dto.BatchTransferResponse;
 import com.favian.bank_test_case.dto.CardResponse;
 import com.favian.bank_test_case.dto.TransferRequest;
 import com.favian.bank_test_case.dto.TransactionResponse;
@@ -8,6 +12,7 @@ import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.entity.enums.CardStatus;
 import com.favian.bank_test_case.entity.enums.TransactionStatus;
 import com.favian.bank_test_case.entity.enums.TransactionType;
+import com.favian.bank_test_case.service.BatchTransferService;
 import com.favian.bank_test_case.service.CardService;
 import com.favian.bank_test_case.service.JwtService;
 import com.favian.bank_test_case.service.TransactionService;
@@ -18,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -53,6 +59,8 @@ public class CardControllerTest {
     private TransactionService transactionService;
     @MockBean
     private UserService userService;
+    @MockBean
+    private BatchTransferService batchTransferService;
 
     private User user;
     private CardResponse cardResponse;
@@ -68,7 +76,7 @@ public class CardControllerTest {
                 CardStatus.ACTIVE, BigDecimal.valueOf(10000)
         );
 
-        when(userService.getCurrentUser()).thenReturn(user);
+        when(userService.getCurrentUserId()).thenReturn(user.getId());
     }
 
     @Test
@@ -76,7 +84,7 @@ public class CardControllerTest {
     public void getAllCards_shouldReturnPageOfCards() throws Exception {
         // ARRANGE
         Page<CardResponse> page = new PageImpl<>(List.of(cardResponse));
-        when(cardService.getUserCards(eq(user), any(Pageable.class))).thenReturn(page);
+        when(cardService.getUserCards(eq(user.getId()), any(Pageable.class))).thenReturn(page);
 
         // ACT & ASSERT
         mockMvc.perform(get("/api/cards")
@@ -95,7 +103,7 @@ public class CardControllerTest {
                 1L, "1234 **** **** 5678", LocalDate.now().plusYears(3),
                 CardStatus.BLOCKED, BigDecimal.valueOf(10000)
         );
-        when(cardService.blockCard(1L, user)).thenReturn(blockedCard);
+        when(cardService.blockCard(1L, user.getId())).thenReturn(blockedCard);
 
         // ACT & ASSERT
         mockMvc.perform(post("/api/cards/1/block"))
@@ -113,14 +121,77 @@ public class CardControllerTest {
                 TransactionType.TRANSFER, BigDecimal.valueOf(1000), "Test",
                 TransactionStatus.COMPLETED, LocalDateTime.now(), LocalDateTime.now()
         );
-        when(transactionService.transferBetweenOwnCards(any(TransferRequest.class), eq(user)))
+        when(transactionService.transferBetweenOwnCards(any(TransferRequest.class), eq(user.getId()), eq("retry-key-1")))
                 .thenReturn(response);
 
         // ACT & ASSERT
         mockMvc.perform(post("/api/cards/transfer")
+                        .header("Idempotency-Key", "retry-key-1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("COMPLETED"));
     }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void batchTransfer_shouldReturnPerItemResults() throws Exception {
+        // ARRANGE
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100), "First"),
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(999999), "Second")
+        ), BatchTransferMode.BEST_EFFORT);
+        BatchTransferResponse response = new BatchTransferResponse(BatchTransferMode.BEST_EFFORT, 1, 1, List.of(
+                new BatchTransferItemResult(0, BatchTransferItemResult.Status.COMPLETED, null, null),
+                new BatchTransferItemResult(1, BatchTransferItemResult.Status.FAILED, null, "Insufficient funds on source card")
+        ));
+        when(batchTransferService.transfer(any(BatchTransferRequest.class), eq(user.getId()))).thenReturn(response);
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/cards/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void batchTransfer_shouldReturn422WhenAllOrNothingRolledBack() throws Exception {
+        // ARRANGE
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(999999), "First"),
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100), "Second")
+        ), BatchTransferMode.ALL_OR_NOTHING);
+        BatchTransferResponse response = new BatchTransferResponse(BatchTransferMode.ALL_OR_NOTHING, 0, 2, List.of(
+                new BatchTransferItemResult(0, BatchTransferItemResult.Status.FAILED, null, "Insufficient funds on source card"),
+                new BatchTransferItemResult(1, BatchTransferItemResult.Status.SKIPPED, null, "Batch aborted: transfer #0 failed")
+        ));
+        when(batchTransferService.transfer(any(BatchTransferRequest.class), eq(user.getId()))).thenReturn(response);
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/cards/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.results[0].status").value("FAILED"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void batchTransfer_shouldReturn409OnLockConflict() throws Exception {
+        // ARRANGE
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(100), "First")
+        ), BatchTransferMode.ALL_OR_NOTHING);
+        when(batchTransferService.transfer(any(BatchTransferRequest.class), eq(user.getId())))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"));
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/cards/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
 }
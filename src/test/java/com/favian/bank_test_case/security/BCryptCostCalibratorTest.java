@@ -0,0 +1,17 @@
+package com.favian.bank_test_case.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BCryptCostCalibratorTest {
+
+    @Test
+    public void calibrate_shouldStayWithinCostBounds() {
+        // ACT & ASSERT
+        assertEquals(4, BCryptCostCalibrator.calibrate(Duration.ZERO, 4, 6));
+        assertEquals(6, BCryptCostCalibrator.calibrate(Duration.ofMinutes(1), 4, 6));
+    }
+}
@@ -0,0 +1,147 @@
+package com.favian.bank_test_case.security;
+
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.RoleRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import com.favian.bank_test_case.service.JwtService;
+import com.favian.bank_test_case.service.RefreshTokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.allow-bean-definition-overriding=true",
+                "server.tomcat.threads.max=4",
+                "server.tomcat.threads.min-spare=4"
+        }
+)
+@ActiveProfiles("test")
+public class PasswordHashingSaturationTest {
+
+    private static final int LOGINS = 8;
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private User user;
+
+    @TestConfiguration
+    static class BlockingHashingConfig {
+
+        // One hashing thread and one queue slot whose hashes do not finish until the test releases them
+        @Bean(destroyMethod = "shutdown")
+        public BoundedPasswordEncoder passwordEncoder() {
+            return new BoundedPasswordEncoder(new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    return rawPassword.toString();
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    try {
+                        return RELEASE.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }, 1, 1, Duration.ofMillis(50));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RELEASE.countDown();
+        if (user != null) {
+            refreshTokenService.deleteByUser(user);
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    public void cardsRequest_shouldCompleteWhileHashingPoolIsFull() throws Exception {
+        // ARRANGE
+        user = newUser("saturation@test.com", "+1444000111");
+        user.getRoles().add(roleRepository.findByName("USER").orElseThrow());
+        user = userRepository.save(user);
+        String token = jwtService.generateAccessToken(user);
+
+        List<CompletableFuture<HttpResponse<String>>> logins = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            logins.add(client.sendAsync(HttpRequest.newBuilder(uri("/api/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"email\":\"saturation@test.com\",\"password\":\"password123\"}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        waitForFullHashingQueue();
+
+        // ACT
+        HttpResponse<String> cards = client.send(HttpRequest.newBuilder(uri("/api/cards"))
+                        .header("Authorization", "Bearer " + token)
+                        .timeout(Duration.ofSeconds(5))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // ASSERT
+        assertEquals(200, cards.statusCode(), cards.body());
+        RELEASE.countDown();
+        long rejected = 0;
+        for (CompletableFuture<HttpResponse<String>> login : logins) {
+            int status = login.get(10, TimeUnit.SECONDS).statusCode();
+            assertTrue(status == 200 || status == 429, "Unexpected login status " + status);
+            if (status == 429) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected >= LOGINS - 2, "Only " + rejected + " logins were turned away");
+    }
+
+    private void waitForFullHashingQueue() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (passwordEncoder.getQueueDepth() == 0) {
+            assertTrue(System.nanoTime() < deadline, "Hashing queue never filled up");
+            Thread.sleep(10);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
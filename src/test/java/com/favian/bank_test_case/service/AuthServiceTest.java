@@ -3,25 +3,27 @@ package com.favian.bank_test_case.service;
 import com.favian.bank_test_case.dto.AuthResponse;
 import com.favian.bank_test_case.dto.LoginRequest;
 import com.favian.bank_test_case.dto.RegisterRequest;
+import com.favian.bank_test_case.entity.RefreshToken;
 import com.favian.bank_test_case.entity.Role;
 import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.exception.exceptions.InvalidCredentialsException;
 import com.favian.bank_test_case.repository.RoleRepository;
 import com.favian.bank_test_case.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.Collections;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,13 +46,12 @@ public class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
     @Mock
-    private UserDetailsService userDetailsService;
-    @Mock
     private RoleRepository roleRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     private User user;
     private Role userRole;
-    private UserDetails userDetails;
 
     @BeforeEach
     public void setUp() {
@@ -62,10 +63,6 @@ public class AuthServiceTest {
         user.setId(1L);
         user.setEmail("test@test.com");
         user.setPasswordHash("encodedPassword");
-
-        userDetails = new org.springframework.security.core.userdetails.User(
-                "test@test.com", "encodedPassword", Collections.emptyList()
-        );
     }
 
     @Test
@@ -79,8 +76,7 @@ public class AuthServiceTest {
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
         when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
-        when(jwtService.generateAccessToken(userDetails)).thenReturn("access-token");
+        when(jwtService.generateAccessToken(any(User.class))).thenReturn("access-token");
         when(refreshTokenService.createRefreshToken(any(User.class))).thenReturn("refresh-token");
 
         // ACT
@@ -102,8 +98,7 @@ public class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(new UsernamePasswordAuthenticationToken("test@test.com", "password123"));
         when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
-        when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
-        when(jwtService.generateAccessToken(userDetails)).thenReturn("access-token");
+        when(jwtService.generateAccessToken(user)).thenReturn("access-token");
         when(refreshTokenService.createRefreshToken(user)).thenReturn("refresh-token");
 
         // ACT
@@ -115,6 +110,7 @@ public class AuthServiceTest {
         assertEquals("refresh-token", result.refreshToken());
 
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        assertEquals(1, meterRegistry.get(AuthService.LOGIN_TIMER).tag("outcome", "success").timer().count());
     }
 
     @Test
@@ -127,5 +123,27 @@ public class AuthServiceTest {
 
         // ACT & ASSERT
         assertThrows(InvalidCredentialsException.class, () -> authService.login(request));
+        assertEquals(1, meterRegistry.get(AuthService.LOGIN_TIMER).tag("outcome", "invalid_credentials").timer().count());
+    }
+
+    @Test
+    public void refreshToken_shouldRotateRefreshToken() {
+        // ARRANGE
+        RefreshToken stored = new RefreshToken();
+        stored.setUser(user);
+        stored.setExpiryDate(Instant.now().plusSeconds(60));
+
+        when(refreshTokenService.findByToken("old-refresh-token")).thenReturn(stored);
+        when(refreshTokenService.verifyExpiration(stored)).thenReturn(stored);
+        when(jwtService.generateAccessToken(user)).thenReturn("access-token");
+        when(refreshTokenService.rotate(stored)).thenReturn("new-refresh-token");
+
+        // ACT
+        AuthResponse result = authService.refreshToken("old-refresh-token");
+
+        // ASSERT
+        assertEquals("access-token", result.accessToken());
+        assertEquals("new-refresh-token", result.refreshToken());
+        verify(refreshTokenService, times(1)).rotate(stored);
     }
 }
@@ -0,0 +1,147 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.BatchTransferItemResult;
+import com.favian.bank_test_case.dto.BatchTransferMode;
+import com.favian.bank_test_case.dto.BatchTransferRequest;
+import com.favian.bank_test_case.dto.BatchTransferResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.TransactionRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.favian.bank_test_case.TestFixtures.newCard;
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BatchTransferServiceTest {
+
+    @Autowired
+    private BatchTransferService batchTransferService;
+    @Autowired
+    private UserRepository userRepository;
+    @SpyBean
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User user;
+    private Card firstCard;
+    private Card secondCard;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(newUser("batch@test.com", "+1888888888"));
+
+        firstCard = cardRepository.save(newCard(user, "**** **** **** 1111", BigDecimal.valueOf(300)));
+        secondCard = cardRepository.save(newCard(user, "**** **** **** 2222", BigDecimal.ZERO));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void transfer_bestEffortShouldCommitValidItemsAndReportFailures() {
+        // ARRANGE
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                transfer(firstCard, secondCard, 100),
+                transfer(firstCard, secondCard, 1000),
+                transfer(secondCard, firstCard, 50)
+        ), BatchTransferMode.BEST_EFFORT);
+
+        // ACT
+        BatchTransferResponse result = batchTransferService.transfer(request, user.getId());
+
+        // ASSERT
+        assertEquals(2, result.completed());
+        assertEquals(1, result.failed());
+        assertEquals(BatchTransferItemResult.Status.FAILED, result.results().get(1).status());
+        assertNotNull(result.results().get(2).transaction().id());
+        assertEquals(0, BigDecimal.valueOf(250).compareTo(balanceOf(firstCard)));
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(balanceOf(secondCard)));
+        assertEquals(2, transactionRepository.count());
+    }
+
+    @Test
+    public void transfer_allOrNothingShouldRollBackEverythingOnFailure() {
+        // ARRANGE
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                transfer(firstCard, secondCard, 100),
+                transfer(firstCard, secondCard, 1000),
+                transfer(secondCard, firstCard, 50)
+        ), BatchTransferMode.ALL_OR_NOTHING);
+
+        // ACT
+        BatchTransferResponse result = batchTransferService.transfer(request, user.getId());
+
+        // ASSERT
+        assertEquals(0, result.completed());
+        assertEquals(BatchTransferItemResult.Status.ROLLED_BACK, result.results().get(0).status());
+        assertEquals(BatchTransferItemResult.Status.FAILED, result.results().get(1).status());
+        assertEquals(BatchTransferItemResult.Status.SKIPPED, result.results().get(2).status());
+        assertEquals(0, BigDecimal.valueOf(300).compareTo(balanceOf(firstCard)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(secondCard)));
+        assertEquals(0, transactionRepository.count());
+    }
+
+    @Test
+    public void transfer_bestEffortShouldReportChunkLostToLockConflict() {
+        // ARRANGE
+        ReflectionTestUtils.setField(batchTransferService, "chunkSize", 1);
+        doReturn(List.of())
+                .doThrow(new CannotAcquireLockException("deadlock detected"))
+                .doReturn(List.of())
+                .when(cardRepository).lockInIdOrder(any(), anyLong());
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                transfer(firstCard, secondCard, 100),
+                transfer(firstCard, secondCard, 100),
+                transfer(firstCard, secondCard, 100)
+        ), BatchTransferMode.BEST_EFFORT);
+
+        // ACT
+        BatchTransferResponse result;
+        try {
+            result = batchTransferService.transfer(request, user.getId());
+        } finally {
+            ReflectionTestUtils.setField(batchTransferService, "chunkSize", 100);
+        }
+
+        // ASSERT
+        assertEquals(2, result.completed());
+        assertEquals(BatchTransferItemResult.Status.COMPLETED, result.results().get(0).status());
+        assertEquals(BatchTransferItemResult.Status.FAILED, result.results().get(1).status());
+        assertEquals(BatchTransferItemResult.Status.COMPLETED, result.results().get(2).status());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(balanceOf(firstCard)));
+        assertEquals(2, transactionRepository.count());
+    }
+
+    private TransferRequest transfer(Card from, Card to, long amount) {
+        return new TransferRequest(from.getId(), to.getId(), BigDecimal.valueOf(amount), "batch");
+    }
+
+    private BigDecimal balanceOf(Card card) {
+        return cardRepository.findById(card.getId()).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,80 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.TransactionRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.favian.bank_test_case.TestFixtures.newCard;
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CardBalanceUpdateTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Card firstCard;
+    private Card secondCard;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(newUser("balance-update@test.com", "+1999000222"));
+
+        firstCard = cardRepository.save(newCard(user, "**** **** **** 1111"));
+        secondCard = cardRepository.save(newCard(user, "**** **** **** 2222"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void transferBetweenOwnCards_shouldNotLetManagedCardOverwriteMovedBalance() {
+        // ARRANGE
+        LocalDate renewedExpiry = LocalDate.now().plusYears(5);
+
+        // ACT
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cardRepository.findById(firstCard.getId()).orElseThrow();
+            transactionService.transferBetweenOwnCards(
+                    new TransferRequest(firstCard.getId(), secondCard.getId(), BigDecimal.TEN, "stale"), user.getId());
+            // A card loaded before the balance UPDATEs must not come back with its old balance and be written out again
+            Card reloaded = cardRepository.findById(firstCard.getId()).orElseThrow();
+            reloaded.setExpiryDate(renewedExpiry);
+        });
+
+        // ASSERT
+        Card stored = cardRepository.findById(firstCard.getId()).orElseThrow();
+        assertEquals(0, BigDecimal.valueOf(990).compareTo(stored.getBalance()));
+        assertEquals(renewedExpiry, stored.getExpiryDate());
+        assertEquals(0, BigDecimal.valueOf(1010).compareTo(cardRepository.findBalanceById(secondCard.getId())));
+    }
+}
@@ -0,0 +1,123 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.CardResponse;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.entity.enums.CardStatus;
+import com.favian.bank_test_case.exception.exceptions.CardNotFoundException;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CardFingerprintBackfillTest {
+
+    @Autowired
+    private CardFingerprintBackfill cardFingerprintBackfill;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private EncryptionService encryptionService;
+    @Autowired
+    private UserRepository userRepository;
+    @SpyBean
+    private CardRepository cardRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(newUser("fingerprint@test.com", "+1333000111"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cardRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void backfill_shouldMakeLegacyCardsFindableByNumber() {
+        // ARRANGE
+        Card legacy = cardRepository.save(legacyCard(encryptionService.encrypt("1234567812345678")));
+        Card unreadable = cardRepository.save(legacyCard("not-encrypted"));
+        assertThrows(CardNotFoundException.class, () -> cardService.findCardByNumber("1234567812345678"));
+
+        // ACT
+        int updated = cardFingerprintBackfill.backfill();
+
+        // ASSERT
+        CardResponse found = cardService.findCardByNumber("1234 5678 1234 5678");
+        assertEquals(1, updated);
+        assertEquals(legacy.getId(), found.id());
+        assertNull(cardRepository.findById(unreadable.getId()).orElseThrow().getPanFingerprint());
+    }
+
+    @Test
+    public void backfill_shouldSkipDuplicateNumbers() {
+        // ARRANGE
+        Card first = cardRepository.save(legacyCard(encryptionService.encrypt("1111222233334444")));
+        Card second = cardRepository.save(legacyCard(encryptionService.encrypt("1111222233334444")));
+
+        // ACT
+        int updated = cardFingerprintBackfill.backfill();
+
+        // ASSERT
+        assertEquals(1, updated);
+        assertNotNull(cardRepository.findById(first.getId()).orElseThrow().getPanFingerprint());
+        assertNull(cardRepository.findById(second.getId()).orElseThrow().getPanFingerprint());
+    }
+
+    @Test
+    public void backfill_shouldSkipChunkThatHitsUniqueIndexAndContinue() {
+        // ARRANGE
+        Card conflicting = cardRepository.save(legacyCard(encryptionService.encrypt("5555666677778888")));
+        Card issuedMeanwhile = legacyCard(encryptionService.encrypt("5555666677778888"));
+        issuedMeanwhile.setPanFingerprint(encryptionService.fingerprint("5555666677778888"));
+        cardRepository.save(issuedMeanwhile);
+        Card later = cardRepository.save(legacyCard(encryptionService.encrypt("9999000011112222")));
+        // The duplicate probe misses the other card, as when it is inserted between probe and commit
+        doReturn(List.of()).when(cardRepository).findExistingFingerprints(any());
+        ReflectionTestUtils.setField(cardFingerprintBackfill, "chunkSize", 1);
+
+        try {
+            // ACT
+            int updated = cardFingerprintBackfill.backfill();
+
+            // ASSERT
+            assertEquals(1, updated);
+            assertNull(cardRepository.findById(conflicting.getId()).orElseThrow().getPanFingerprint());
+            assertNotNull(cardRepository.findById(later.getId()).orElseThrow().getPanFingerprint());
+        } finally {
+            ReflectionTestUtils.setField(cardFingerprintBackfill, "chunkSize", 500);
+        }
+    }
+
+    private Card legacyCard(String encryptedNumber) {
+        Card card = new Card();
+        card.setUser(user);
+        card.setEncryptedNumber(encryptedNumber);
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.ZERO);
+        return card;
+    }
+}
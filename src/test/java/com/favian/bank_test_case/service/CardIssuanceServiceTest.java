@@ -0,0 +1,164 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.BulkCardJobResponse;
+import com.favian.bank_test_case.dto.BulkCardJobStatus;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.exception.exceptions.BulkCardJobNotFoundException;
+import com.favian.bank_test_case.exception.exceptions.BulkCardLimitExceededException;
+import com.favian.bank_test_case.exception.exceptions.InvalidCsvException;
+import com.favian.bank_test_case.exception.exceptions.TooManyRequestsException;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {"card.bulk.chunk-size=7", "card.bulk.max-cards=25"})
+@ActiveProfiles("test")
+public class CardIssuanceServiceTest {
+
+    @Autowired
+    private CardIssuanceService cardIssuanceService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+
+    private User first;
+    private User second;
+
+    @BeforeEach
+    public void setUp() {
+        first = userRepository.save(newUser("bulk1@test.com", "+1444000001"));
+        second = userRepository.save(newUser("bulk2@test.com", "+1444000002"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cardRepository.deleteAll();
+        userRepository.delete(first);
+        userRepository.delete(second);
+    }
+
+    @Test
+    public void submit_shouldIssueCardsAcrossChunksAndSkipUnknownUsers() throws Exception {
+        // ARRANGE
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            userIds.add(first.getId());
+            userIds.add(second.getId());
+        }
+        userIds.add(Long.MAX_VALUE);
+
+        // ACT
+        BulkCardJobResponse job = awaitFinished(cardIssuanceService.submit(userIds).jobId());
+
+        // ASSERT
+        assertEquals(BulkCardJobStatus.COMPLETED, job.status());
+        assertEquals(21, job.total());
+        assertEquals(20, job.issued());
+        assertEquals(1, job.skipped());
+        assertEquals(10, cardRepository.findByUserId(first.getId(), PageRequest.of(0, 20)).getTotalElements());
+        assertEquals(10, cardRepository.findByUserId(second.getId(), PageRequest.of(0, 20)).getTotalElements());
+    }
+
+    @Test
+    public void submitCsv_shouldReadHeaderLinesAndCommas() throws Exception {
+        // ARRANGE
+        String csv = "user_id\n" + first.getId() + "\n" + second.getId() + "," + first.getId() + "\n\n";
+
+        // ACT
+        BulkCardJobResponse job = awaitFinished(cardIssuanceService.submitCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))).jobId());
+
+        // ASSERT
+        assertEquals(3, job.issued());
+        assertEquals(2, cardRepository.findByUserId(first.getId(), PageRequest.of(0, 20)).getTotalElements());
+    }
+
+    @Test
+    public void submitCsv_shouldRejectMalformedIds() {
+        // ARRANGE
+        String csv = first.getId() + "\nabc\n";
+        String mixedFirstLine = first.getId() + ",1O," + second.getId() + "\n";
+
+        // ACT & ASSERT
+        assertThrows(InvalidCsvException.class, () -> cardIssuanceService.submitCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+        assertThrows(InvalidCsvException.class, () -> cardIssuanceService.submitCsv(
+                new ByteArrayInputStream(mixedFirstLine.getBytes(StandardCharsets.UTF_8))));
+        assertThrows(BulkCardJobNotFoundException.class, () -> cardIssuanceService.getJob(UUID.randomUUID()));
+    }
+
+    @Test
+    public void submit_shouldRejectMoreUserIdsThanConfiguredLimit() {
+        // ARRANGE
+        List<Long> userIds = Collections.nCopies(26, first.getId());
+
+        // ACT & ASSERT
+        assertThrows(BulkCardLimitExceededException.class, () -> cardIssuanceService.submit(userIds));
+        assertEquals(0, cardRepository.findByUserId(first.getId(), PageRequest.of(0, 20)).getTotalElements());
+    }
+
+    @Test
+    public void submit_shouldRejectWhenQueueIsFullAndKeepActiveJobs() throws Exception {
+        // ARRANGE
+        CountDownLatch release = new CountDownLatch(1);
+        UserRepository blockingUsers = mock(UserRepository.class);
+        when(blockingUsers.findExistingIds(anyList())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        // One worker and one queue slot; a finished-job cache of one would have evicted the running job before
+        CardIssuanceService service = new CardIssuanceService(mock(CardService.class), mock(CardRepository.class),
+                blockingUsers, mock(PlatformTransactionManager.class), 7, 25, Duration.ofHours(1), 1, 1);
+        try {
+            UUID running = service.submit(List.of(1L)).jobId();
+            while (service.getJob(running).status() != BulkCardJobStatus.RUNNING) {
+                Thread.sleep(10);
+            }
+            UUID queued = service.submit(List.of(2L)).jobId();
+
+            // ACT & ASSERT
+            assertThrows(TooManyRequestsException.class, () -> service.submit(List.of(3L)));
+            assertEquals(BulkCardJobStatus.RUNNING, service.getJob(running).status());
+            assertEquals(BulkCardJobStatus.QUEUED, service.getJob(queued).status());
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    private BulkCardJobResponse awaitFinished(UUID jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            BulkCardJobResponse job = cardIssuanceService.getJob(jobId);
+            if (job.status() == BulkCardJobStatus.COMPLETED || job.status() == BulkCardJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        fail("Bulk card job did not finish in time");
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.favian.bank_test_case.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardNumberGeneratorTest {
+
+    @Test
+    public void generate_shouldProduceLuhnValidNumbersWithBin() {
+        // ARRANGE
+        CardNumberGenerator generator = new CardNumberGenerator("220012");
+        Set<String> numbers = new HashSet<>();
+
+        // ACT
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(generator.generate());
+        }
+
+        // ASSERT
+        assertTrue(numbers.size() > 990);
+        for (String number : numbers) {
+            assertEquals(16, number.length());
+            assertTrue(number.startsWith("220012"), number);
+            assertTrue(CardNumberGenerator.isValid(number), number);
+        }
+    }
+
+    @Test
+    public void isValid_shouldCheckLuhnDigit() {
+        // ACT & ASSERT
+        assertTrue(CardNumberGenerator.isValid("4111111111111111"));
+        assertTrue(CardNumberGenerator.isValid("5500005555555559"));
+        assertFalse(CardNumberGenerator.isValid("4111111111111112"));
+        assertFalse(CardNumberGenerator.isValid("4111 1111 1111 1111"));
+    }
+
+    @Test
+    public void constructor_shouldRejectMalformedBin() {
+        // ACT & ASSERT
+        assertThrows(IllegalStateException.class, () -> new CardNumberGenerator("40A000"));
+        assertThrows(IllegalStateException.class, () -> new CardNumberGenerator("4000"));
+    }
+}
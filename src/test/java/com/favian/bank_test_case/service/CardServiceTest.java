@@ -12,9 +12,13 @@ import com.favian.bank_test_case.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -37,6 +41,8 @@ public class CardServiceTest {
     private UserRepository userRepository;
     @Mock
     private EncryptionService encryptionService;
+    @Spy
+    private CardNumberGenerator cardNumberGenerator = new CardNumberGenerator("400000");
 
     private User user1;
     private Card card1;
@@ -98,30 +104,68 @@ public class CardServiceTest {
         verify(cardRepository, times(1)).save(any(Card.class));
     }
 
+    @Test
+    public void createCard_shouldRegenerateNumberWhenFingerprintIsTaken() {
+        // ARRANGE
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        when(encryptionService.fingerprint(any())).thenReturn("taken", "free");
+        when(cardRepository.existsByPanFingerprint("taken")).thenReturn(true);
+        when(cardRepository.existsByPanFingerprint("free")).thenReturn(false);
+        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // ACT
+        cardService.createCard(new CreateCardRequest(1L));
+
+        // ASSERT
+        ArgumentCaptor<Card> saved = ArgumentCaptor.forClass(Card.class);
+        verify(cardRepository).save(saved.capture());
+        assertEquals("free", saved.getValue().getPanFingerprint());
+        verify(cardNumberGenerator, times(2)).generate();
+    }
+
     @Test
     public void blockCard_shouldBlockActiveCard() {
         // ARRANGE
-        when(cardRepository.findByIdAndUser(1L, user1)).thenReturn(Optional.of(card1));
+        when(cardRepository.findByIdAndUserId(1L, user1.getId())).thenReturn(Optional.of(card1));
         when(cardRepository.save(any(Card.class))).thenReturn(card1);
 
         // ACT
-        CardResponse result = cardService.blockCard(1L, user1);
+        CardResponse result = cardService.blockCard(1L, user1.getId());
 
         // ASSERT
         assertEquals(CardStatus.BLOCKED, card1.getStatus());
 
-        verify(cardRepository, times(1)).findByIdAndUser(1L, user1);
+        verify(cardRepository, times(1)).findByIdAndUserId(1L, user1.getId());
         verify(cardRepository, times(1)).save(any(Card.class));
     }
 
     @Test
     public void getCardById_shouldThrowWhenCardNotFound() {
         // ARRANGE
-        when(cardRepository.findByIdAndUser(99L, user1)).thenReturn(Optional.empty());
+        when(cardRepository.findByIdAndUserId(99L, user1.getId())).thenReturn(Optional.empty());
 
         // ACT & ASSERT
-        assertThrows(CardNotFoundException.class, () -> cardService.getCardById(99L, user1));
+        assertThrows(CardNotFoundException.class, () -> cardService.getCardById(99L, user1.getId()));
 
-        verify(cardRepository, times(1)).findByIdAndUser(99L, user1);
+        verify(cardRepository, times(1)).findByIdAndUserId(99L, user1.getId());
+    }
+
+    @Test
+    public void searchUserCards_shouldMatchOnLastFourDigits() {
+        // ARRANGE
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(cardRepository.findByUserIdAndLast4StartingWith(user1.getId(), "56", pageable)).thenReturn(Page.empty(pageable));
+        when(cardRepository.findByUserIdAndLast4StartingWith(user1.getId(), "5678", pageable)).thenReturn(Page.empty(pageable));
+
+        // ACT
+        cardService.searchUserCards(user1.getId(), "56", pageable);
+        cardService.searchUserCards(user1.getId(), "1234 **** **** 5678", pageable);
+        Page<CardResponse> noDigits = cardService.searchUserCards(user1.getId(), "****", pageable);
+
+        // ASSERT
+        assertTrue(noDigits.isEmpty());
+        verify(cardRepository).findByUserIdAndLast4StartingWith(user1.getId(), "56", pageable);
+        verify(cardRepository).findByUserIdAndLast4StartingWith(user1.getId(), "5678", pageable);
+        verifyNoMoreInteractions(cardRepository);
     }
 }
@@ -0,0 +1,109 @@
+package com.favian.bank_test_case.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EncryptionServiceTest {
+
+    private static final String KEY = "12345678901234567890123456789012";
+
+    private EncryptionService encryptionService;
+
+    @BeforeEach
+    public void setUp() {
+        encryptionService = new EncryptionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "secret", KEY);
+        ReflectionTestUtils.setField(encryptionService, "fingerprintSecret", "fingerprint-key");
+        encryptionService.init();
+    }
+
+    @Test
+    public void encrypt_shouldRoundTripWithRandomIv() {
+        // ACT
+        String first = encryptionService.encrypt("4000 1234 5678 9010");
+        String second = encryptionService.encrypt("4000 1234 5678 9010");
+
+        // ASSERT
+        assertTrue(first.startsWith("v1:"));
+        assertNotEquals(first, second);
+        assertEquals("4000 1234 5678 9010", encryptionService.decrypt(first));
+        assertEquals("4000 1234 5678 9010", encryptionService.decrypt(second));
+    }
+
+    @Test
+    public void decrypt_shouldReadLegacyEcbValues() throws Exception {
+        // ARRANGE
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES"));
+        String legacy = Base64.getEncoder().encodeToString(cipher.doFinal("4000 1234 5678 9010".getBytes(StandardCharsets.UTF_8)));
+
+        // ACT & ASSERT
+        assertEquals("4000 1234 5678 9010", encryptionService.decrypt(legacy));
+    }
+
+    @Test
+    public void decrypt_shouldRejectTamperedValue() {
+        // ARRANGE
+        byte[] encrypted = encryptionService.encryptBytes("4000 1234 5678 9010".getBytes(StandardCharsets.UTF_8));
+        encrypted[encrypted.length - 1] ^= 1;
+
+        // ACT & ASSERT
+        assertThrows(RuntimeException.class, () -> encryptionService.decryptBytes(encrypted));
+        assertArrayEquals("ok".getBytes(StandardCharsets.UTF_8),
+                encryptionService.decryptBytes(encryptionService.encryptBytes("ok".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void fingerprint_shouldBeDeterministicPerNumber() {
+        // ACT
+        String first = encryptionService.fingerprint("4000001234567899");
+        String again = encryptionService.fingerprint("4000001234567899");
+        String other = encryptionService.fingerprint("4000001234567881");
+
+        // ASSERT
+        assertEquals(64, first.length());
+        assertEquals(first, again);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    public void encrypt_shouldBeSafeUnderConcurrentUse() throws Exception {
+        // ARRANGE
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        // ACT
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String value = "card-" + thread + "-" + i;
+                    if (!value.equals(encryptionService.decrypt(encryptionService.encrypt(value)))) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+
+        // ASSERT
+        for (Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+        executor.shutdown();
+    }
+}
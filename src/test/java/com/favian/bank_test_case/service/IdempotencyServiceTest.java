@@ -0,0 +1,154 @@
+package com.favian.bank_test_case.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.favian.bank_test_case.dto.TransactionResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.IdempotencyRecord;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.entity.enums.TransactionStatus;
+import com.favian.bank_test_case.entity.enums.TransactionType;
+import com.favian.bank_test_case.exception.exceptions.IdempotencyKeyConflictException;
+import com.favian.bank_test_case.repository.IdempotencyRecordRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    private IdempotencyService idempotencyService;
+    private User user;
+    private TransferRequest request;
+    private TransactionResponse response;
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyService = new IdempotencyService(
+                idempotencyRecordRepository, userRepository, new ObjectMapper().findAndRegisterModules(), Duration.ofHours(1), 100
+        );
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("user@test.com");
+
+        request = new TransferRequest(1L, 2L, BigDecimal.valueOf(100), "Rent");
+        response = new TransactionResponse(
+                10L, 1L, "**** **** **** 1111", 2L, "**** **** **** 2222",
+                TransactionType.TRANSFER, BigDecimal.valueOf(100), "Rent",
+                TransactionStatus.COMPLETED, LocalDateTime.now(), LocalDateTime.now()
+        );
+    }
+
+    @Test
+    public void findTransferResponse_shouldServeStoredResponseFromCache() {
+        // ARRANGE
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.storeTransferResponse(user.getId(), "key-1", request, response);
+
+        // ACT
+        Optional<TransactionResponse> result = idempotencyService.findTransferResponse(user.getId(), "key-1", request);
+
+        // ASSERT
+        assertTrue(result.isPresent());
+        assertEquals(10L, result.get().id());
+        verify(idempotencyRecordRepository, never())
+                .findByUserIdAndIdempotencyKeyAndExpiresAtAfter(anyLong(), anyString(), any());
+    }
+
+    @Test
+    public void findTransferResponse_shouldReadStoredResponseFromDatabaseOnCacheMiss() {
+        // ARRANGE
+        IdempotencyService otherNode = new IdempotencyService(
+                idempotencyRecordRepository, userRepository, new ObjectMapper().findAndRegisterModules(), Duration.ofHours(1), 100
+        );
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(idempotencyRecordRepository.saveAndFlush(saved.capture()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        otherNode.storeTransferResponse(user.getId(), "key-1", request, response);
+
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKeyAndExpiresAtAfter(eq(1L), eq("key-1"), any()))
+                .thenReturn(Optional.of(saved.getValue()));
+
+        // ACT
+        Optional<TransactionResponse> result = idempotencyService.findTransferResponse(user.getId(), "key-1", request);
+
+        // ASSERT
+        assertTrue(result.isPresent());
+        assertEquals(response, result.get());
+    }
+
+    @Test
+    public void findTransferResponse_shouldRejectKeyReusedForDifferentRequest() {
+        // ARRANGE
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.storeTransferResponse(user.getId(), "key-1", request, response);
+        TransferRequest otherRequest = new TransferRequest(1L, 2L, BigDecimal.valueOf(500), "Rent");
+
+        // ACT & ASSERT
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> idempotencyService.findTransferResponse(user.getId(), "key-1", otherRequest));
+    }
+
+    @Test
+    public void findTransferResponse_shouldNotCacheRecordBeyondItsExpiry() throws Exception {
+        // ARRANGE
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(idempotencyRecordRepository.saveAndFlush(saved.capture()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        new IdempotencyService(idempotencyRecordRepository, userRepository, new ObjectMapper().findAndRegisterModules(), Duration.ofHours(1), 100)
+                .storeTransferResponse(user.getId(), "key-1", request, response);
+        IdempotencyRecord record = saved.getValue();
+        record.setExpiresAt(Instant.now().plusMillis(100));
+
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKeyAndExpiresAtAfter(eq(1L), eq("key-1"), any()))
+                .thenReturn(Optional.of(record), Optional.empty());
+
+        // ACT
+        Optional<TransactionResponse> beforeExpiry = idempotencyService.findTransferResponse(user.getId(), "key-1", request);
+        Thread.sleep(200);
+        Optional<TransactionResponse> afterExpiry = idempotencyService.findTransferResponse(user.getId(), "key-1", request);
+
+        // ASSERT
+        assertTrue(beforeExpiry.isPresent());
+        assertTrue(afterExpiry.isEmpty());
+    }
+
+    @Test
+    public void storeTransferResponse_shouldDropExpiredRecordOfSameKeyBeforeInsert() {
+        // ARRANGE
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // ACT
+        idempotencyService.storeTransferResponse(user.getId(), "key-1", request, response);
+
+        // ASSERT
+        InOrder inOrder = inOrder(idempotencyRecordRepository);
+        inOrder.verify(idempotencyRecordRepository).deleteExpiredKey(eq(1L), eq("key-1"), any(Instant.class));
+        inOrder.verify(idempotencyRecordRepository).saveAndFlush(any(IdempotencyRecord.class));
+    }
+}
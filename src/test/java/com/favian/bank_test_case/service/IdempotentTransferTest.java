@@ -0,0 +1,83 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.TransactionResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.IdempotencyRecord;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.IdempotencyRecordRepository;
+import com.favian.bank_test_case.repository.TransactionRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static com.favian.bank_test_case.TestFixtures.newCard;
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IdempotentTransferTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private User user;
+    private Card firstCard;
+    private Card secondCard;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(newUser("idempotent@test.com", "+1999000111"));
+
+        firstCard = cardRepository.save(newCard(user, "**** **** **** 1111"));
+        secondCard = cardRepository.save(newCard(user, "**** **** **** 2222"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        idempotencyRecordRepository.deleteAll();
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void transferBetweenOwnCards_shouldAcceptKeyWhoseRecordExpiredButIsNotPurged() {
+        // ARRANGE
+        IdempotencyRecord expired = new IdempotencyRecord();
+        expired.setUser(user);
+        expired.setIdempotencyKey("reused-key");
+        expired.setRequestHash("0".repeat(64));
+        expired.setResponseBody("{}");
+        expired.setExpiresAt(Instant.now().minusSeconds(60));
+        idempotencyRecordRepository.save(expired);
+
+        // ACT
+        TransactionResponse response = transactionService.transferBetweenOwnCards(
+                new TransferRequest(firstCard.getId(), secondCard.getId(), BigDecimal.TEN, "reuse"), user.getId(), "reused-key");
+
+        // ASSERT
+        assertNotNull(response.id());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(1, idempotencyRecordRepository.count());
+        assertTrue(idempotencyRecordRepository.findAll().get(0).getExpiresAt().isAfter(Instant.now()));
+        assertEquals(0, BigDecimal.valueOf(990).compareTo(cardRepository.findBalanceById(firstCard.getId())));
+    }
+}
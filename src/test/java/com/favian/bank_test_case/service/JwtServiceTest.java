@@ -0,0 +1,103 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.entity.Role;
+import com.favian.bank_test_case.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(jwtService, "secret", "dGVzdF9zZWNyZXRfa2V5X2Zvcl9qd3RfdG9rZW5fZ2VuZXJhdGlvbl8zMl9ieXRlcw==");
+        ReflectionTestUtils.setField(jwtService, "accessExpiration", 60000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheSize", 100L);
+        jwtService.init();
+
+        userDetails = new User("user@test.com", "hashedPassword", List.of());
+    }
+
+    @Test
+    public void verify_shouldReturnCachedClaimsForRepeatedToken() {
+        // ARRANGE
+        String token = jwtService.generateAccessToken(userDetails);
+
+        // ACT
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        // ASSERT
+        assertSame(first, second);
+        assertEquals("user@test.com", first.getSubject());
+        assertTrue(jwtService.isTokenValid(first, userDetails));
+        assertEquals(1, meterRegistry.get(JwtService.VERIFY_TIMER).tag("outcome", "verified").timer().count());
+        assertEquals(1, meterRegistry.get(JwtService.VERIFY_TIMER).tag("outcome", "cached").timer().count());
+    }
+
+    @Test
+    public void verify_shouldRejectTamperedToken() {
+        // ARRANGE
+        String token = jwtService.generateAccessToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // ACT & ASSERT
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertEquals(1, meterRegistry.get(JwtService.VERIFY_TIMER).tag("outcome", "invalid").timer().count());
+    }
+
+    @Test
+    public void validateToken_shouldRejectTokenOfAnotherUser() {
+        // ARRANGE
+        String token = jwtService.generateAccessToken(userDetails);
+        UserDetails other = new User("other@test.com", "hashedPassword", List.of());
+
+        // ACT & ASSERT
+        assertFalse(jwtService.validateToken(token, other));
+    }
+
+    @Test
+    public void toAuthenticatedUser_shouldReadUserIdAndRolesFromClaims() {
+        // ARRANGE
+        Role role = new Role();
+        role.setName("ADMIN");
+        com.favian.bank_test_case.entity.User user = new com.favian.bank_test_case.entity.User();
+        user.setId(42L);
+        user.setEmail("admin@test.com");
+        user.setRoles(Set.of(role));
+
+        // ACT
+        AuthenticatedUser principal = jwtService.toAuthenticatedUser(jwtService.verify(jwtService.generateAccessToken(user)));
+
+        // ASSERT
+        assertEquals(42L, principal.id());
+        assertEquals("admin@test.com", principal.getName());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(principal.authorities()));
+    }
+
+    @Test
+    public void toAuthenticatedUser_shouldReturnNullForLegacyToken() {
+        // ARRANGE
+        String token = jwtService.generateAccessToken(userDetails);
+
+        // ACT & ASSERT
+        assertNull(jwtService.toAuthenticatedUser(jwtService.verify(token)));
+    }
+}
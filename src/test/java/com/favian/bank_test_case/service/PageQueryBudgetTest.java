@@ -0,0 +1,111 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.entity.enums.CardStatus;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.TransactionRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static com.favian.bank_test_case.TestFixtures.newCard;
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Guards list endpoints against N+1 regressions: a page may run at most an owner lookup, the page query and its count.
+@SpringBootTest
+@ActiveProfiles("test")
+public class PageQueryBudgetTest {
+
+    private static final int MAX_STATEMENTS_PER_PAGE = 3;
+    private static final int TRANSFERS = 30;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private User user;
+    private Card firstCard;
+    private Card secondCard;
+    private Pageable page;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(newUser("budget@test.com", "+1555000111"));
+
+        firstCard = cardRepository.save(newCard(user, "**** **** **** 3333"));
+        secondCard = cardRepository.save(newCard(user, "**** **** **** 4444"));
+        for (int i = 0; i < TRANSFERS; i++) {
+            Card from = i % 2 == 0 ? firstCard : secondCard;
+            Card to = i % 2 == 0 ? secondCard : firstCard;
+            transactionService.transferBetweenOwnCards(
+                    new TransferRequest(from.getId(), to.getId(), BigDecimal.ONE, "budget " + i), user.getId());
+        }
+
+        page = PageRequest.of(0, 20, Sort.by("createdAt").descending());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void cardPages_shouldStayWithinStatementBudget() {
+        assertWithinBudget("user cards", () -> cardService.getUserCards(user.getId(), PageRequest.of(0, 20, Sort.by("id"))));
+        assertWithinBudget("cards by status", () -> cardService.getUserCardsByStatus(user.getId(), CardStatus.ACTIVE, PageRequest.of(0, 20, Sort.by("id"))));
+        assertWithinBudget("all cards", () -> cardService.getAllCards(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    public void transactionPages_shouldStayWithinStatementBudget() {
+        assertWithinBudget("user transactions", () -> transactionService.getUserTransactions(user.getId(), page));
+        assertWithinBudget("card transactions", () -> transactionService.getCardTransactions(firstCard.getId(), user.getId(), page));
+        assertWithinBudget("user transactions by cursor", () -> transactionService.getUserTransactions(user.getId(), null, 20));
+        assertWithinBudget("card transactions by cursor", () -> transactionService.getCardTransactions(firstCard.getId(), user.getId(), null, 20));
+        assertWithinBudget("ledger", () -> transactionService.getUserLedger(user.getId(), null, 20));
+        assertWithinBudget("card statement", () -> transactionService.getCardStatement(firstCard.getId(), user.getId(), null, 20));
+    }
+
+    private <T> T assertWithinBudget(String name, Supplier<T> pageRequest) {
+        statistics.clear();
+        T result = transactionTemplate.execute(status -> pageRequest.get());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS_PER_PAGE,
+                name + " ran " + statements + " SQL statements, budget is " + MAX_STATEMENTS_PER_PAGE);
+        return result;
+    }
+}
@@ -0,0 +1,57 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.LoginRequest;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.RefreshTokenRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PasswordUpgradeTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User();
+        user.setEmail("legacy@test.com");
+        user.setPasswordHash(new BCryptPasswordEncoder(4).encode("password123"));
+        user.setPhone("+1999999999");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void login_shouldUpgradeLegacyHash() {
+        // ACT
+        authService.login(new LoginRequest("legacy@test.com", "password123"));
+        String upgraded = userRepository.findById(user.getId()).orElseThrow().getPasswordHash();
+        authService.login(new LoginRequest("legacy@test.com", "password123"));
+
+        // ASSERT
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$04$"), upgraded);
+        assertEquals(upgraded, userRepository.findById(user.getId()).orElseThrow().getPasswordHash());
+        assertEquals(upgraded, userRepository.findByEmail("legacy@test.com").orElseThrow().getPasswordHash());
+    }
+}
@@ -0,0 +1,119 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.entity.RefreshToken;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.exception.exceptions.RefreshTokenNotFoundException;
+import com.favian.bank_test_case.repository.RefreshTokenRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(newUser("refresh@test.com", "+1888888888"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void createRefreshToken_shouldStoreOnlyHash() {
+        // ACT
+        String token = refreshTokenService.createRefreshToken(user);
+
+        // ASSERT
+        RefreshToken stored = refreshTokenService.findByToken(token);
+        assertEquals(64, stored.getTokenHash().length());
+        assertNotEquals(token, stored.getTokenHash());
+    }
+
+    @Test
+    public void createRefreshToken_shouldRevokeOldestBeyondCap() {
+        // ARRANGE
+        List<String> tokens = new ArrayList<>();
+
+        // ACT
+        for (int i = 0; i < 7; i++) {
+            tokens.add(refreshTokenService.createRefreshToken(user));
+        }
+
+        // ASSERT
+        assertEquals(5, refreshTokenRepository.findIdsByUserNewestFirst(user).size());
+        assertThrows(RefreshTokenNotFoundException.class, () -> refreshTokenService.findByToken(tokens.get(0)));
+        assertThrows(RefreshTokenNotFoundException.class, () -> refreshTokenService.findByToken(tokens.get(1)));
+        assertNotNull(refreshTokenService.findByToken(tokens.get(6)));
+    }
+
+    @Test
+    public void rotate_shouldInvalidatePresentedToken() {
+        // ARRANGE
+        String token = refreshTokenService.createRefreshToken(user);
+        RefreshToken stored = refreshTokenService.findByToken(token);
+
+        // ACT
+        String rotated = refreshTokenService.rotate(stored);
+
+        // ASSERT
+        assertNotEquals(token, rotated);
+        assertThrows(RefreshTokenNotFoundException.class, () -> refreshTokenService.findByToken(token));
+        assertThrows(RefreshTokenNotFoundException.class, () -> refreshTokenService.rotate(stored));
+        assertEquals(user.getId(), refreshTokenService.findByToken(rotated).getUser().getId());
+    }
+
+    @Test
+    public void purgeExpired_shouldDeleteExpiredTokensInChunks() {
+        // ARRANGE
+        ReflectionTestUtils.setField(refreshTokenService, "purgeChunkSize", 3);
+        String active = refreshTokenService.createRefreshToken(user);
+        List<RefreshToken> expired = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            RefreshToken token = new RefreshToken();
+            token.setUser(user);
+            token.setTokenHash("%064d".formatted(i));
+            token.setExpiryDate(Instant.now().minusSeconds(60 + i));
+            expired.add(token);
+        }
+        refreshTokenRepository.saveAll(expired);
+
+        // ACT
+        int deleted;
+        try {
+            deleted = refreshTokenService.purgeExpired();
+        } finally {
+            ReflectionTestUtils.setField(refreshTokenService, "purgeChunkSize", 1000);
+        }
+
+        // ASSERT
+        assertEquals(8, deleted);
+        assertEquals(1, refreshTokenRepository.count());
+        assertNotNull(refreshTokenService.findByToken(active));
+    }
+}
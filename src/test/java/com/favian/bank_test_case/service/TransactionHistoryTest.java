@@ -0,0 +1,237 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.dto.CursorPage;
+import com.favian.bank_test_case.dto.LedgerEntryResponse;
+import com.favian.bank_test_case.dto.TransactionResponse;
+import com.favian.bank_test_case.dto.TransferRequest;
+import com.favian.bank_test_case.entity.Card;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.entity.enums.LedgerDirection;
+import com.favian.bank_test_case.exception.exceptions.InvalidCursorException;
+import com.favian.bank_test_case.repository.CardRepository;
+import com.favian.bank_test_case.repository.TransactionRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.favian.bank_test_case.TestFixtures.newCard;
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.favian.bank_test_case.service.CapturingStatementInspector")
+@ActiveProfiles("test")
+public class TransactionHistoryTest {
+
+    private static final int TRANSFERS = 25;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Card firstCard;
+    private Card secondCard;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(newUser("history@test.com", "+1666666666"));
+
+        firstCard = cardRepository.save(newCard(user, "**** **** **** 1111"));
+        secondCard = cardRepository.save(newCard(user, "**** **** **** 2222"));
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            Card from = i % 2 == 0 ? firstCard : secondCard;
+            Card to = i % 2 == 0 ? secondCard : firstCard;
+            transactionService.transferBetweenOwnCards(
+                    new TransferRequest(from.getId(), to.getId(), BigDecimal.ONE, "history " + i), user.getId());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void getUserTransactions_cursorPagesShouldMatchOffsetOrder() {
+        // ARRANGE
+        List<Long> expected = transactionService.getUserTransactions(user.getId(),
+                        PageRequest.of(0, TRANSFERS, Sort.by("createdAt").descending().and(Sort.by("id").descending())))
+                .map(TransactionResponse::id)
+                .getContent();
+
+        // ACT
+        List<Long> actual = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TransactionResponse> page = transactionService.getUserTransactions(user.getId(), cursor, 10);
+            page.content().forEach(transaction -> actual.add(transaction.id()));
+            pageSizes.add(page.size());
+            cursor = page.nextCursor();
+            assertEquals(page.hasNext(), cursor != null);
+        } while (cursor != null);
+
+        // ASSERT
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void getCardTransactions_shouldContinueAfterCursor() {
+        // ACT
+        CursorPage<TransactionResponse> first = transactionService.getCardTransactions(firstCard.getId(), user.getId(), null, 20);
+        CursorPage<TransactionResponse> second = transactionService.getCardTransactions(firstCard.getId(), user.getId(), first.nextCursor(), 20);
+
+        // ASSERT
+        assertTrue(first.hasNext());
+        assertEquals(5, second.size());
+        assertFalse(second.hasNext());
+        assertNull(second.nextCursor());
+        assertTrue(first.content().get(19).id() > second.content().get(0).id());
+    }
+
+    @Test
+    public void getUserTransactions_shouldRejectMalformedCursor() {
+        // ACT & ASSERT
+        assertThrows(InvalidCursorException.class, () -> transactionService.getUserTransactions(user.getId(), "not-a-cursor", 10));
+    }
+
+    @Test
+    public void historyQueries_shouldSeekIndexesInsteadOfScanningTransactions() {
+        // ARRANGE
+        PageRequest page = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+
+        // ACT
+        CapturingStatementInspector.start();
+        transactionService.getUserTransactions(user.getId(), page);
+        String ownerSql = CapturingStatementInspector.stop().get(0);
+        CapturingStatementInspector.start();
+        transactionService.getCardTransactions(firstCard.getId(), user.getId(), null, 10);
+        String cardSql = CapturingStatementInspector.stop().stream()
+                .filter(sql -> sql.toUpperCase().contains("UNION ALL"))
+                .findFirst().orElseThrow();
+        String ownerPlan = explain(ownerSql, idParameters(ownerSql, user.getId()));
+        String cardPlan = explain(cardSql, firstCard.getId(), 11, firstCard.getId(), 11, 11);
+
+        // ASSERT
+        // The card page ids come from the (card, created_at, id) composites, one per branch of the UNION ALL
+        assertTrue(cardPlan.contains("IDX_TX_FROM_CARD_CREATED: FROM_CARD_ID = "), cardPlan);
+        assertTrue(cardPlan.contains("IDX_TX_TO_CARD_CREATED: TO_CARD_ID = "), cardPlan);
+        // The owner page only proves an index seek: H2 indexes foreign key columns on its own and prefers
+        // that single-column index here, while on PostgreSQL idx_tx_owner_created is the only candidate
+        assertFalse(ownerPlan.contains("TABLESCAN"), ownerPlan);
+        assertTrue(ownerPlan.contains(": OWNER_USER_ID = "), ownerPlan);
+    }
+
+    @Test
+    public void findByUserId_shouldReturnEveryTransactionOfOwner() {
+        // ACT
+        long total = transactionService.getUserTransactions(user.getId(), PageRequest.of(0, 10)).getTotalElements();
+        long cardTotal = transactionService.getCardTransactions(secondCard.getId(), user.getId(), PageRequest.of(0, 10)).getTotalElements();
+
+        // ASSERT
+        assertEquals(TRANSFERS, total);
+        assertEquals(TRANSFERS, cardTotal);
+    }
+
+    @Test
+    public void getUserTransactions_shouldReadPageWithoutLoadingCards() {
+        // ARRANGE
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // ACT
+        List<TransactionResponse> page = transactionService.getUserTransactions(user.getId(),
+                PageRequest.of(0, 20, Sort.by("createdAt").descending())).getContent();
+
+        // ASSERT
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(page.stream().allMatch(transaction -> transaction.fromCardMasked() != null && transaction.toCardMasked() != null));
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    public void getCardStatement_shouldCarryRunningBalance() {
+        // ARRANGE
+        BigDecimal currentBalance = cardRepository.findBalanceById(firstCard.getId());
+
+        // ACT
+        List<LedgerEntryResponse> entries = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<LedgerEntryResponse> page = transactionService.getCardStatement(firstCard.getId(), user.getId(), cursor, 10);
+            entries.addAll(page.content());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // ASSERT
+        assertEquals(TRANSFERS, entries.size());
+        assertEquals(0, currentBalance.compareTo(entries.get(0).balanceAfter()));
+        assertEquals(0, BigDecimal.valueOf(1000).add(entries.get(TRANSFERS - 1).amount())
+                .compareTo(entries.get(TRANSFERS - 1).balanceAfter()));
+        for (int i = 0; i < entries.size() - 1; i++) {
+            LedgerEntryResponse entry = entries.get(i);
+            assertEquals(firstCard.getId(), entry.cardId());
+            assertEquals(entry.direction() == LedgerDirection.DEBIT, entry.amount().signum() < 0);
+            assertEquals(0, entries.get(i + 1).balanceAfter().add(entry.amount()).compareTo(entry.balanceAfter()));
+        }
+    }
+
+    @Test
+    public void getUserLedger_shouldHoldBothSidesOfEveryTransfer() {
+        // ACT
+        CursorPage<LedgerEntryResponse> first = transactionService.getUserLedger(user.getId(), null, 2 * TRANSFERS - 1);
+        CursorPage<LedgerEntryResponse> second = transactionService.getUserLedger(user.getId(), first.nextCursor(), 10);
+        String plan = explain("SELECT * FROM user_ledger_entries WHERE user_id = " + user.getId()
+                + " ORDER BY created_at DESC, id DESC LIMIT 10");
+
+        // ASSERT
+        assertEquals(1, second.size());
+        assertFalse(second.hasNext());
+        assertEquals(0, first.content().stream().map(LedgerEntryResponse::amount)
+                .reduce(second.content().get(0).amount(), BigDecimal::add).signum());
+        assertFalse(plan.contains("TABLESCAN"), plan);
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args)).toUpperCase();
+    }
+
+    // Binds every parameter of a captured statement to the id, except the trailing row limit
+    private Object[] idParameters(String sql, Long id) {
+        Object[] args = new Object[sql.length() - sql.replace("?", "").length()];
+        Arrays.fill(args, id);
+        args[args.length - 1] = 10;
+        return args;
+    }
+}
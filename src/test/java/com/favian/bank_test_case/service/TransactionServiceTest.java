@@ -8,19 +8,25 @@ import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.entity.enums.CardStatus;
 import com.favian.bank_test_case.entity.enums.TransactionStatus;
 import com.favian.bank_test_case.entity.enums.TransactionType;
+import com.favian.bank_test_case.exception.exceptions.CardBlockedException;
 import com.favian.bank_test_case.exception.exceptions.InsufficientFundsException;
 import com.favian.bank_test_case.repository.CardRepository;
 import com.favian.bank_test_case.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +43,10 @@ public class TransactionServiceTest {
     private CardRepository cardRepository;
     @Mock
     private CardService cardService;
+    @Mock
+    private IdempotencyService idempotencyService;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     private User user;
     private Card fromCard;
@@ -74,9 +84,9 @@ public class TransactionServiceTest {
         // ARRANGE
         TransferRequest request = new TransferRequest(1L, 2L, BigDecimal.valueOf(3000), "Test transfer");
 
-        when(cardService.findCardByIdAndUser(1L, user)).thenReturn(fromCard);
-        when(cardService.findCardByIdAndUser(2L, user)).thenReturn(toCard);
-        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cardRepository.findByIdInAndUserId(List.of(1L, 2L), user.getId())).thenReturn(List.of(fromCard, toCard));
+        when(cardRepository.debit(1L, BigDecimal.valueOf(3000))).thenReturn(1);
+        when(cardRepository.credit(2L, BigDecimal.valueOf(3000))).thenReturn(1);
 
         Transaction savedTransaction = new Transaction();
         savedTransaction.setId(1L);
@@ -90,17 +100,18 @@ public class TransactionServiceTest {
         when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
 
         // ACT
-        TransactionResponse result = transactionService.transferBetweenOwnCards(request, user);
+        TransactionResponse result = transactionService.transferBetweenOwnCards(request, user.getId());
 
         // ASSERT
         assertNotNull(result);
         assertEquals(TransactionType.TRANSFER, result.type());
         assertEquals(TransactionStatus.COMPLETED, result.status());
-        assertEquals(BigDecimal.valueOf(7000), fromCard.getBalance());
-        assertEquals(BigDecimal.valueOf(8000), toCard.getBalance());
 
-        verify(cardRepository, times(2)).save(any(Card.class));
+        verify(cardRepository, times(1)).debit(1L, BigDecimal.valueOf(3000));
+        verify(cardRepository, times(1)).credit(2L, BigDecimal.valueOf(3000));
+        verify(cardRepository, never()).save(any(Card.class));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        assertEquals(1, meterRegistry.get(TransactionService.TRANSFER_TIMER).tag("outcome", "completed").timer().count());
     }
 
     @Test
@@ -108,13 +119,35 @@ public class TransactionServiceTest {
         // ARRANGE
         TransferRequest request = new TransferRequest(1L, 2L, BigDecimal.valueOf(50000), "Too much");
 
-        when(cardService.findCardByIdAndUser(1L, user)).thenReturn(fromCard);
-        when(cardService.findCardByIdAndUser(2L, user)).thenReturn(toCard);
+        when(cardRepository.findByIdInAndUserId(List.of(1L, 2L), user.getId())).thenReturn(List.of(fromCard, toCard));
+        when(cardRepository.debit(1L, BigDecimal.valueOf(50000))).thenReturn(0);
+        when(cardRepository.findStatusById(1L)).thenReturn(Optional.of(CardStatus.ACTIVE));
 
         // ACT & ASSERT
         assertThrows(InsufficientFundsException.class,
-                () -> transactionService.transferBetweenOwnCards(request, user));
+                () -> transactionService.transferBetweenOwnCards(request, user.getId()));
 
-        verify(cardRepository, never()).save(any(Card.class));
+        verify(cardRepository, never()).credit(any(), any());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertEquals(1, meterRegistry.get(TransactionService.TRANSFER_TIMER).tag("outcome", "insufficient_funds").timer().count());
+    }
+
+    @Test
+    public void transferBetweenOwnCards_shouldThrowWhenSourceCardBlocked() {
+        // ARRANGE
+        TransferRequest request = new TransferRequest(2L, 1L, BigDecimal.valueOf(100), "Blocked");
+
+        when(cardRepository.findByIdInAndUserId(List.of(2L, 1L), user.getId())).thenReturn(List.of(fromCard, toCard));
+        when(cardRepository.credit(1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.debit(2L, BigDecimal.valueOf(100))).thenReturn(0);
+        when(cardRepository.findStatusById(2L)).thenReturn(Optional.of(CardStatus.BLOCKED));
+
+        // ACT & ASSERT
+        assertThrows(CardBlockedException.class,
+                () -> transactionService.transferBetweenOwnCards(request, user.getId()));
+
+        verify(cardRepository, times(1)).adjustBalance(1L, BigDecimal.valueOf(100).negate());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertEquals(1, meterRegistry.get(TransactionService.TRANSFER_TIMER).tag("outcome", "blocked").timer().count());
     }
 }
@@ -0,0 +1,128 @@
+package com.favian.bank_test_case.service;
+
+import com.favian.bank_test_case.config.CacheConfig;
+import com.favian.bank_test_case.dto.CacheStatsResponse;
+import com.favian.bank_test_case.dto.UpdateUserRequest;
+import com.favian.bank_test_case.entity.Role;
+import com.favian.bank_test_case.entity.User;
+import com.favian.bank_test_case.repository.RoleRepository;
+import com.favian.bank_test_case.repository.UserRepository;
+import com.favian.bank_test_case.security.UserCredentials;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.favian.bank_test_case.TestFixtures.newUser;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CacheStatsService cacheStatsService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        user = userRepository.save(newUser("cached@test.com", "+1777777777"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.findById(user.getId()).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    public void findCredentialsByEmail_shouldServeRepeatedLookupsFromCache() {
+        // ARRANGE
+        CacheStatsResponse usersBefore = stats(CacheConfig.USERS_BY_EMAIL);
+        CacheStatsResponse rolesBefore = stats(CacheConfig.ROLES_BY_NAME);
+
+        // ACT
+        userRepository.findCredentialsByEmail("cached@test.com");
+        userRepository.findCredentialsByEmail("cached@test.com");
+        roleRepository.findByName("USER");
+        roleRepository.findByName("USER");
+
+        // ASSERT
+        assertEquals(usersBefore.hitCount() + 1, stats(CacheConfig.USERS_BY_EMAIL).hitCount());
+        assertEquals(usersBefore.missCount() + 1, stats(CacheConfig.USERS_BY_EMAIL).missCount());
+        assertEquals(rolesBefore.hitCount() + 1, stats(CacheConfig.ROLES_BY_NAME).hitCount());
+    }
+
+    @Test
+    public void roleWrites_shouldEvictRolesAndUserSnapshots() {
+        // ARRANGE
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        userRepository.findCredentialsByEmail("cached@test.com");
+        Cache roles = cacheManager.getCache(CacheConfig.ROLES_BY_NAME);
+        Cache users = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+
+        // ACT
+        roleRepository.saveAll(List.of(role));
+
+        // ASSERT
+        assertNull(roles.get("USER"));
+        assertNull(users.get("cached@test.com"));
+    }
+
+    @Test
+    public void updateUser_shouldEvictOnlyTheChangedUser() {
+        // ARRANGE
+        User other = userRepository.save(newUser("other-cached@test.com", "+1777777778"));
+        userRepository.findCredentialsByEmail("cached@test.com");
+        userRepository.findCredentialsByEmail("other-cached@test.com");
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+
+        try {
+            // ACT
+            userService.updateUser(user.getId(), new UpdateUserRequest("renamed@test.com", null, null, null));
+
+            // ASSERT
+            assertNull(cache.get("cached@test.com"));
+            assertNotNull(cache.get("other-cached@test.com"));
+            assertTrue(userRepository.findCredentialsByEmail("cached@test.com").isEmpty());
+            assertEquals(user.getId(), userRepository.findCredentialsByEmail("renamed@test.com").orElseThrow().id());
+        } finally {
+            userRepository.delete(other);
+        }
+    }
+
+    @Test
+    public void findCredentialsByEmail_shouldCacheImmutableSnapshot() {
+        // ACT
+        UserCredentials credentials = userRepository.findCredentialsByEmail("cached@test.com").orElseThrow();
+
+        // ASSERT
+        assertSame(credentials, userRepository.findCredentialsByEmail("cached@test.com").orElseThrow());
+        assertEquals(user.getId(), credentials.id());
+        assertEquals("hashedPassword", credentials.passwordHash());
+        assertThrows(UnsupportedOperationException.class, () -> credentials.roles().add("ADMIN"));
+    }
+
+    private CacheStatsResponse stats(String cacheName) {
+        return cacheStatsService.getCacheStats().stream()
+                .filter(stats -> stats.name().equals(cacheName))
+                .findFirst()
+                .orElseThrow();
+    }
+}
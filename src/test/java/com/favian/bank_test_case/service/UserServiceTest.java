@@ -1,21 +1,28 @@
 package com.favian.bank_test_case.service;
 
+import com.favian.bank_test_case.config.CacheConfig;
 import com.favian.bank_test_case.dto.UpdateUserRequest;
 import com.favian.bank_test_case.dto.UserResponse;
 import com.favian.bank_test_case.entity.Role;
 import com.favian.bank_test_case.entity.User;
 import com.favian.bank_test_case.exception.exceptions.UserNotFoundException;
 import com.favian.bank_test_case.repository.UserRepository;
+import com.favian.bank_test_case.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.HashSet;
 import java.util.List;
@@ -33,6 +40,10 @@ public class UserServiceTest {
     private UserService userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache usersByEmail;
 
     private User user1;
 
@@ -76,6 +87,7 @@ public class UserServiceTest {
         UpdateUserRequest request = new UpdateUserRequest("new@test.com", "NewFirst", "NewLast", "+1111111111");
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(userRepository.save(any(User.class))).thenReturn(user1);
+        when(cacheManager.getCache(CacheConfig.USERS_BY_EMAIL)).thenReturn(usersByEmail);
 
         // ACT
         UserResponse result = userService.updateUser(1L, request);
@@ -86,17 +98,41 @@ public class UserServiceTest {
         assertEquals("NewFirst", user1.getFirstName());
 
         verify(userRepository, times(1)).save(user1);
+        verify(usersByEmail).evict("user@test.com");
+        verify(usersByEmail, never()).clear();
     }
 
     @Test
     public void deleteUser_shouldDeleteExistingUser() {
         // ARRANGE
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        when(cacheManager.getCache(CacheConfig.USERS_BY_EMAIL)).thenReturn(usersByEmail);
 
         // ACT
         userService.deleteUser(1L);
 
         // ASSERT
         verify(userRepository, times(1)).delete(user1);
+        verify(usersByEmail).evict("user@test.com");
+    }
+
+    @Test
+    public void getCurrentUserId_shouldReadIdFromTokenPrincipalWithoutQuery() {
+        // ARRANGE
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "user@test.com", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.authorities())
+        );
+
+        try {
+            // ACT
+            Long result = userService.getCurrentUserId();
+
+            // ASSERT
+            assertEquals(1L, result);
+            verifyNoInteractions(userRepository);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
     }
 }